@@ -0,0 +1,60 @@
+package com.ktpm.ktpm.benchmark;
+
+import com.ktpm.ktpm.KtpmApplication;
+import com.ktpm.ktpm.reactive.KtpmReactiveApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Khởi động ứng dụng cho benchmark, mặc định dùng profile test (H2).
+// Chạy với MySQL: -Djmh.args="... -jvmArgs -Dbench.profile=default"
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        return start(new Class<?>[0], properties);
+    }
+
+    public static ConfigurableApplicationContext start(Class<?>[] extraSources, String... properties) {
+        return new SpringApplicationBuilder(KtpmApplication.class)
+                .sources(extraSources)
+                .profiles(System.getProperty("bench.profile", "test"))
+                .properties("server.port=0", "logging.level.root=WARN", "spring.jpa.show-sql=false")
+                .properties(properties)
+                .run();
+    }
+
+    // App reactive đọc cùng database H2 in-memory "ktpm" với app servlet trong cùng JVM,
+    // nên phải start sau app servlet (JPA tạo bảng).
+    // Truyền dạng tham số dòng lệnh vì application-reactive.yml được ưu tiên hơn default properties
+    public static ConfigurableApplicationContext startReactive(Class<?>[] extraSources, String... properties) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.r2dbc.url=" + System.getProperty("bench.r2dbc-url",
+                        "r2dbc:h2:mem:///ktpm?options=MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"),
+                "--spring.r2dbc.username=" + System.getProperty("bench.r2dbc-username", "sa"),
+                "--spring.r2dbc.password=" + System.getProperty("bench.r2dbc-password", "")));
+        for (String property : properties)
+            args.add("--" + property);
+
+        return new SpringApplicationBuilder(KtpmReactiveApplication.class)
+                .sources(extraSources)
+                .profiles(System.getProperty("bench.profile", "test"), KtpmReactiveApplication.PROFILE)
+                .properties("logging.level.root=WARN")
+                .run(args.toArray(String[]::new));
+    }
+
+    // Các service có @PreAuthorize, benchmark gọi trực tiếp nên đăng nhập sẵn bằng quyền ADMIN cho mọi thread
+    public static void loginAsAdmin() {
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "admin", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
+    }
+}
@@ -0,0 +1,76 @@
+package com.ktpm.ktpm.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktpm.ktpm.dto.request.ProductCreationRequest;
+import com.ktpm.ktpm.dto.response.BulkImportResponse;
+import com.ktpm.ktpm.service.ProductImportService;
+import com.ktpm.ktpm.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// So sánh số dòng/giây: POST /product từng sản phẩm và POST /product/bulk (JDBC batch)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BulkImportBenchmark {
+    private static final int ROWS = 1000;
+
+    ConfigurableApplicationContext context;
+    ProductService productService;
+    ProductImportService productImportService;
+    List<ProductCreationRequest> requests;
+    byte[] ndjson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.loginAsAdmin();
+        productService = context.getBean(ProductService.class);
+        productImportService = context.getBean(ProductImportService.class);
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+
+        requests = new ArrayList<>(ROWS);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < ROWS; i++) {
+            ProductCreationRequest request = ProductCreationRequest.builder()
+                    .productName("Product " + i)
+                    .description("Benchmark product " + i)
+                    .price(BigDecimal.valueOf(1000 + i))
+                    .amount(i)
+                    .build();
+            requests.add(request);
+            out.write(objectMapper.writeValueAsBytes(request));
+            out.write('\n');
+        }
+        ndjson = out.toByteArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void singleInsert() {
+        for (ProductCreationRequest request : requests)
+            productService.createProduct(request);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public BulkImportResponse bulkImport() throws IOException {
+        return productImportService.importProducts(new ByteArrayInputStream(ndjson));
+    }
+}
@@ -0,0 +1,103 @@
+package com.ktpm.ktpm.benchmark;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Statement;
+import org.reactivestreams.Publisher;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.time.Duration;
+
+// Giả lập độ trễ DB: mỗi lần execute* của Statement ngủ thêm bench.db-latency trong khi vẫn giữ connection.
+// Với R2DBC (app reactive) thì trễ bằng delaySubscription, không chặn thread nào.
+// Không đánh dấu @Configuration để component scan không tự nạp, chỉ thêm vào khi benchmark cần.
+public class DbLatencyConfig {
+
+    @Bean
+    public static BeanPostProcessor dbLatencyPostProcessor(@Value("${bench.db-latency:20ms}") Duration latency) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || latency.isZero())
+                    return bean;
+
+                return new DelegatingDataSource(dataSource) {
+                    @Override
+                    public java.sql.Connection getConnection() throws SQLException {
+                        return wrap(super.getConnection(), java.sql.Connection.class, latency);
+                    }
+                };
+            }
+        };
+    }
+
+    @Bean
+    public static BeanPostProcessor r2dbcLatencyPostProcessor(@Value("${bench.db-latency:20ms}") Duration latency) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof ConnectionFactory connectionFactory) || latency.isZero())
+                    return bean;
+
+                return new ConnectionFactory() {
+                    @Override
+                    public Publisher<? extends Connection> create() {
+                        return Mono.from(connectionFactory.create())
+                                .map(connection -> delayed(connection, Connection.class, latency));
+                    }
+
+                    @Override
+                    public ConnectionFactoryMetadata getMetadata() {
+                        return connectionFactory.getMetadata();
+                    }
+                };
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T delayed(T target, Class<T> type, Duration latency) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            try {
+                Object result = method.invoke(target, args);
+                if (target instanceof Statement && method.getName().equals("execute"))
+                    return Flux.from((Publisher<?>) result).delaySubscription(latency);
+                // bind/add/returnGeneratedValues... trả về chính statement -> trả về proxy để execute vẫn bị trễ
+                if (result == target)
+                    return proxy;
+                if (result instanceof Statement statement)
+                    return delayed(statement, Statement.class, latency);
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T wrap(T target, Class<T> type, Duration latency) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            try {
+                if (target instanceof java.sql.Statement && method.getName().startsWith("execute"))
+                    Thread.sleep(latency);
+
+                Object result = method.invoke(target, args);
+                if (result instanceof java.sql.Statement && method.getReturnType().isInterface())
+                    return wrap(result, (Class<Object>) method.getReturnType(), latency);
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+}
@@ -0,0 +1,143 @@
+package com.ktpm.ktpm.benchmark;
+
+import com.ktpm.ktpm.util.Uuids;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// So sánh khóa chính UUIDv4 VARCHAR(36) (cách cũ) với UUIDv7 BINARY(16): số dòng insert/giây khi bảng lớn dần,
+// và dung lượng bảng + index (có index phụ và bảng nối như product/user_roles) in ra sau mỗi lượt.
+// Mặc định H2 dạng file; đo trên MySQL/InnoDB:
+// -Djmh.args="IdStrategyBenchmark -jvmArgs -Dbench.jdbc-url=jdbc:mysql://localhost:3306/ktpm?rewriteBatchedStatements=true"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class IdStrategyBenchmark {
+    private static final int ROWS = 1000;
+
+    @Param({"UUID_V4_VARCHAR", "UUID_V7_BINARY"})
+    String strategy;
+
+    Path directory;
+    Connection connection;
+    PreparedStatement insertRow;
+    PreparedStatement insertLink;
+    boolean mysql;
+    long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        String url = System.getProperty("bench.jdbc-url");
+        if (url == null) {
+            directory = Files.createTempDirectory("id-bench");
+            url = "jdbc:h2:file:" + directory.resolve("id-bench") + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+        }
+        mysql = url.startsWith("jdbc:mysql");
+        connection = DriverManager.getConnection(url,
+                System.getProperty("bench.jdbc-username", mysql ? "root" : "sa"),
+                System.getProperty("bench.jdbc-password", mysql ? "root" : ""));
+
+        String idType = binary() ? "binary(16)" : "varchar(36)";
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists id_bench_link");
+            statement.execute("drop table if exists id_bench");
+            statement.execute("create table id_bench (id " + idType + " not null primary key, " +
+                    "product_name varchar(255) not null, created_at timestamp(6) not null)");
+            statement.execute("create index idx_id_bench_created_at_id on id_bench (created_at, id)");
+            statement.execute("create table id_bench_link (owner_id " + idType + " not null, " +
+                    "role_name varchar(50) not null, primary key (owner_id, role_name))");
+        }
+
+        connection.setAutoCommit(false);
+        insertRow = connection.prepareStatement("insert into id_bench (id, product_name, created_at) values (?, ?, ?)");
+        insertLink = connection.prepareStatement("insert into id_bench_link (owner_id, role_name) values (?, ?)");
+    }
+
+    @TearDown(Level.Iteration)
+    public void printSize() throws SQLException {
+        long rows;
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select count(*) from id_bench")) {
+            resultSet.next();
+            rows = resultSet.getLong(1);
+        }
+        long bytes = tableBytes("id_bench") + tableBytes("id_bench_link");
+        System.out.printf("%n%s: %d rows, %d KB (%.1f bytes/row)%n", strategy, rows, bytes / 1024,
+                rows == 0 ? 0.0 : (double) bytes / rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException, IOException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists id_bench_link");
+            statement.execute("drop table if exists id_bench");
+        }
+        connection.commit();
+        connection.close();
+
+        if (directory != null)
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList())
+                    Files.delete(file);
+            }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insert() throws SQLException {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int i = 0; i < ROWS; i++) {
+            Object id = nextId();
+            insertRow.setObject(1, id);
+            insertRow.setString(2, "Product " + sequence++);
+            insertRow.setTimestamp(3, now);
+            insertRow.addBatch();
+
+            insertLink.setObject(1, id);
+            insertLink.setString(2, "USER");
+            insertLink.addBatch();
+        }
+        insertRow.executeBatch();
+        insertLink.executeBatch();
+        connection.commit();
+    }
+
+    private boolean binary() {
+        return "UUID_V7_BINARY".equals(strategy);
+    }
+
+    private Object nextId() {
+        return binary() ? Uuids.toBytes(Uuids.timeOrdered()) : UUID.randomUUID().toString();
+    }
+
+    // InnoDB: data_length là clustered index (cả bảng), index_length là các index phụ
+    private long tableBytes(String table) throws SQLException {
+        String sql = mysql
+                ? "select data_length + index_length from information_schema.tables " +
+                  "where table_schema = database() and table_name = '" + table + "'"
+                : "select disk_space_used('" + table + "')";
+        try (Statement statement = connection.createStatement()) {
+            if (mysql)
+                statement.execute("analyze table " + table);
+            try (ResultSet resultSet = statement.executeQuery(sql)) {
+                return resultSet.next() ? resultSet.getLong(1) : 0;
+            }
+        }
+    }
+}
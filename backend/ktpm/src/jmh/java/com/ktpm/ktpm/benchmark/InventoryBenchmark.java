@@ -0,0 +1,51 @@
+package com.ktpm.ktpm.benchmark;
+
+import com.ktpm.ktpm.dto.request.InventoryRequest;
+import com.ktpm.ktpm.dto.response.InventoryResponse;
+import com.ktpm.ktpm.entity.ProductEntity;
+import com.ktpm.ktpm.repository.ProductRepository;
+import com.ktpm.ktpm.service.InventoryService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Số lần giữ hàng/giây trên một sản phẩm "hot" khi nhiều thread cùng trừ tồn kho
+// mvn -Pbenchmark test-compile exec:exec -Djmh.args="InventoryBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class InventoryBenchmark {
+    private static final InventoryRequest ONE = new InventoryRequest(1);
+
+    ConfigurableApplicationContext context;
+    InventoryService inventoryService;
+    String productId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        inventoryService = context.getBean(InventoryService.class);
+        productId = context.getBean(ProductRepository.class).save(ProductEntity.builder()
+                .productName("Hot product")
+                .description("Flash sale")
+                .price(BigDecimal.TEN)
+                .amount(Integer.MAX_VALUE)
+                .build()).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public InventoryResponse reserveHotProduct() {
+        return inventoryService.reserve(productId, ONE);
+    }
+}
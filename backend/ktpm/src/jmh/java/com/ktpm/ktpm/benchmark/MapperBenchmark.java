@@ -0,0 +1,71 @@
+package com.ktpm.ktpm.benchmark;
+
+import com.ktpm.ktpm.dto.request.ProductCreationRequest;
+import com.ktpm.ktpm.dto.response.ProductResponse;
+import com.ktpm.ktpm.dto.response.UserResponse;
+import com.ktpm.ktpm.entity.ProductEntity;
+import com.ktpm.ktpm.entity.UserEntity;
+import com.ktpm.ktpm.mapper.ProductionMapper;
+import com.ktpm.ktpm.mapper.ProductionMapperImpl;
+import com.ktpm.ktpm.mapper.UserMapper;
+import com.ktpm.ktpm.mapper.UserMapperImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// Chi phí chuyển đổi của các mapper MapStruct
+// mvn -Pbenchmark test-compile exec:exec -Djmh.args="MapperBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+    ProductionMapper productionMapper = new ProductionMapperImpl();
+    UserMapper userMapper = new UserMapperImpl();
+
+    ProductEntity product;
+    ProductCreationRequest creationRequest;
+    UserEntity user;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        product = ProductEntity.builder()
+                .id("3f1c2d4e-5a6b-4c7d-8e9f-0a1b2c3d4e5f")
+                .productName("Product")
+                .description("Benchmark product")
+                .price(BigDecimal.valueOf(199000))
+                .amount(10)
+                .createdAt(LocalDateTime.now())
+                .build();
+        creationRequest = ProductCreationRequest.builder()
+                .productName("Product")
+                .description("Benchmark product")
+                .price(BigDecimal.valueOf(199000))
+                .amount(10)
+                .build();
+        user = UserEntity.builder()
+                .id("0b7c7a4e-8d38-4f0c-9a53-1f1f4f0f6d11")
+                .userName("admin")
+                .email("admin1234@gmail.com")
+                .build();
+    }
+
+    @Benchmark
+    public ProductResponse productToResponse() {
+        return productionMapper.toResponse(product);
+    }
+
+    @Benchmark
+    public ProductEntity requestToProduct() {
+        return productionMapper.toProductEntity(creationRequest);
+    }
+
+    @Benchmark
+    public UserResponse userToResponse() {
+        return userMapper.toUserResponse(user);
+    }
+}
@@ -0,0 +1,83 @@
+package com.ktpm.ktpm.benchmark;
+
+import com.ktpm.ktpm.entity.ProductEntity;
+import com.ktpm.ktpm.repository.ProductRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+// So sánh GET /product giữa app servlet (Tomcat + JPA) và app reactive (Netty + R2DBC) khi DB chậm
+// (bench.db-latency, mặc định 20ms mỗi câu lệnh). minPrice để app servlet không trả từ snapshot.
+// Ví dụ: -Djmh.args="ReactiveRead -t 2000 -jvmArgs -Dbench.db-latency=50ms"
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Threads(400)
+@Fork(1)
+public class ReactiveReadBenchmark {
+
+    @Param({"servlet", "reactive"})
+    String stack;
+
+    ConfigurableApplicationContext servletContext;
+    ConfigurableApplicationContext reactiveContext;
+    HttpClient httpClient;
+    HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Cùng giới hạn connection DB cho hai bên, khác nhau chỉ ở mô hình thread
+        servletContext = BenchmarkApplication.start(
+                new Class<?>[]{DbLatencyConfig.class},
+                "spring.datasource.hikari.maximum-pool-size=50",
+                "server.tomcat.threads.max=200",
+                "server.tomcat.max-connections=10000"
+        );
+
+        ProductRepository productRepository = servletContext.getBean(ProductRepository.class);
+        for (int i = 0; i < 100; i++)
+            productRepository.save(ProductEntity.builder()
+                    .productName("Product " + i)
+                    .description("Benchmark product " + i)
+                    .price(BigDecimal.valueOf(1000 + i))
+                    .amount(i)
+                    .build());
+
+        ConfigurableApplicationContext target = servletContext;
+        if (stack.equals("reactive")) {
+            reactiveContext = BenchmarkApplication.startReactive(
+                    new Class<?>[]{DbLatencyConfig.class},
+                    "spring.r2dbc.pool.max-size=50"
+            );
+            target = reactiveContext;
+        }
+
+        String port = target.getEnvironment().getProperty("local.server.port");
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/ktpm/product?size=20&minPrice=0"))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        httpClient.close();
+        if (reactiveContext != null)
+            reactiveContext.close();
+        servletContext.close();
+    }
+
+    @Benchmark
+    public int listProducts() throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,87 @@
+package com.ktpm.ktpm.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.ktpm.ktpm.dto.response.ApiResponse;
+import com.ktpm.ktpm.dto.response.ProductResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialize/deserialize ApiResponse<List<ProductResponse>> bằng Jackson với số phần tử và định dạng khác nhau,
+// kích thước payload được in ra lúc setup
+// mvn -Pbenchmark test-compile exec:exec -Djmh.args="SerializationBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int size;
+
+    @Param({"json", "smile", "cbor"})
+    String format;
+
+    ObjectWriter writer;
+    ObjectReader reader;
+    ApiResponse<List<ProductResponse>> response;
+    byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Cùng cấu hình mặc định với ObjectMapper mà Spring Boot tạo ra
+        JsonFactory factory = switch (format) {
+            case "smile" -> new SmileFactory();
+            case "cbor" -> new CBORFactory();
+            default -> new JsonFactory();
+        };
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().factory(factory).build();
+        TypeReference<ApiResponse<List<ProductResponse>>> type = new TypeReference<>() {
+        };
+        writer = objectMapper.writerFor(type);
+        reader = objectMapper.readerFor(type);
+
+        List<ProductResponse> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            products.add(ProductResponse.builder()
+                    .id("3f1c2d4e-5a6b-4c7d-8e9f-" + String.format("%012d", i))
+                    .productName("Product " + i)
+                    .description("Benchmark product number " + i)
+                    .price(BigDecimal.valueOf(1000 + i))
+                    .amount(i)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        response = new ApiResponse<>(products, "Get all products successfully");
+
+        try {
+            payload = writer.writeValueAsBytes(response);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        System.out.printf("%n%s, %d products: %d bytes%n", format, size, payload.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public ApiResponse<List<ProductResponse>> deserialize() throws IOException {
+        return reader.readValue(payload);
+    }
+}
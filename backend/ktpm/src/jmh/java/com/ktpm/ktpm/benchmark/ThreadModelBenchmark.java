@@ -0,0 +1,71 @@
+package com.ktpm.ktpm.benchmark;
+
+import com.ktpm.ktpm.entity.ProductEntity;
+import com.ktpm.ktpm.repository.ProductRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+// So sánh throughput và p99 của GET /product giữa platform thread và virtual thread
+// khi DB chậm (bench.db-latency, mặc định 20ms mỗi câu lệnh).
+// Ví dụ: -Djmh.args="ThreadModel -t 400 -jvmArgs -Dbench.db-latency=50ms"
+// Thêm -jvmArgs -Djdk.tracePinnedThreads=short để in các chỗ virtual thread bị pin.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Threads(400)
+@Fork(1)
+public class ThreadModelBenchmark {
+
+    @Param({"false", "true"})
+    String virtualThreads;
+
+    ConfigurableApplicationContext context;
+    HttpClient httpClient;
+    HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(
+                new Class<?>[]{DbLatencyConfig.class},
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                // Pool đủ lớn để giới hạn nằm ở mô hình thread chứ không phải ở số connection
+                "spring.datasource.hikari.maximum-pool-size=500",
+                "server.tomcat.threads.max=200",
+                "server.tomcat.max-connections=10000"
+        );
+
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        for (int i = 0; i < 100; i++)
+            productRepository.save(ProductEntity.builder()
+                    .productName("Product " + i)
+                    .description("Benchmark product " + i)
+                    .price(BigDecimal.valueOf(1000 + i))
+                    .amount(i)
+                    .build());
+
+        String port = context.getEnvironment().getProperty("local.server.port");
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/ktpm/product?size=20")).GET().build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        httpClient.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int listProducts() throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
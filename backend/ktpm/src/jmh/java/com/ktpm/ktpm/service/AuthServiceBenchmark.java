@@ -0,0 +1,62 @@
+package com.ktpm.ktpm.service;
+
+import com.ktpm.ktpm.configuration.VerifiedTokenCache;
+import com.ktpm.ktpm.entity.RoleEntity;
+import com.ktpm.ktpm.entity.UserEntity;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.text.ParseException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Tạo và xác thực JWT trong AuthService (không cần Spring context)
+// mvn -Pbenchmark test-compile exec:exec -Djmh.args="AuthServiceBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthServiceBenchmark {
+    static final String SIGNER_KEY = "JWGfJPd4nzAOWfBu7rmcc6ACoygdlec3b/bD43D6/uLlf3ebn+5J29iUhpPOJ1BQ";
+
+    AuthService authService;
+    UserEntity user;
+    String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        authService = new AuthService(
+                null,
+                new TokenRevocationService(null),
+                null,
+                new RoleCatalog(null, null, "maximumSize=100", new SimpleMeterRegistry()),
+                new VerifiedTokenCache(10_000, new SimpleMeterRegistry()),
+                new BCryptPasswordEncoder(12)
+        );
+        authService.SIGNER_KEY = SIGNER_KEY;
+        authService.EXPIRATION_TIME = 3600;
+
+        user = UserEntity.builder()
+                .id("0b7c7a4e-8d38-4f0c-9a53-1f1f4f0f6d11")
+                .userName("admin")
+                .email("admin1234@gmail.com")
+                .roles(Set.of(RoleEntity.builder().roleName("ADMIN").build()))
+                .build();
+        token = authService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return authService.generateToken(user);
+    }
+
+    @Benchmark
+    public SignedJWT verifyToken() throws ParseException, JOSEException {
+        return authService.verifyToken(token);
+    }
+}
@@ -0,0 +1,62 @@
+package com.ktpm.ktpm.service;
+
+import com.ktpm.ktpm.configuration.CustomJWTDecoder;
+import com.ktpm.ktpm.configuration.VerifiedTokenCache;
+import com.ktpm.ktpm.entity.RoleEntity;
+import com.ktpm.ktpm.entity.UserEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// CustomJWTDecoder.decode khi token đã nằm trong VerifiedTokenCache và khi phải xác thực lại
+// mvn -Pbenchmark test-compile exec:exec -Djmh.args="CustomJWTDecoderBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomJWTDecoderBenchmark {
+    static final String SIGNER_KEY = "JWGfJPd4nzAOWfBu7rmcc6ACoygdlec3b/bD43D6/uLlf3ebn+5J29iUhpPOJ1BQ";
+
+    CustomJWTDecoder decoder;
+    VerifiedTokenCache verifiedTokenCache;
+    String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        verifiedTokenCache = new VerifiedTokenCache(10_000, new SimpleMeterRegistry());
+        AuthService authService = new AuthService(
+                null,
+                new TokenRevocationService(null),
+                null,
+                new RoleCatalog(null, null, "maximumSize=100", new SimpleMeterRegistry()),
+                verifiedTokenCache,
+                new BCryptPasswordEncoder(12)
+        );
+        authService.SIGNER_KEY = SIGNER_KEY;
+        authService.EXPIRATION_TIME = 3600;
+
+        decoder = new CustomJWTDecoder(SIGNER_KEY, authService, verifiedTokenCache, new SimpleMeterRegistry());
+
+        token = authService.generateToken(UserEntity.builder()
+                .userName("admin")
+                .roles(Set.of(RoleEntity.builder().roleName("ADMIN").build()))
+                .build());
+    }
+
+    @Benchmark
+    public Jwt decodeCached() {
+        return decoder.decode(token);
+    }
+
+    @Benchmark
+    public Jwt decodeUncached() {
+        verifiedTokenCache.invalidate(token);
+        return decoder.decode(token);
+    }
+}
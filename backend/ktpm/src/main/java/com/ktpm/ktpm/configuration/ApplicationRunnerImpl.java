@@ -4,6 +4,7 @@ import com.ktpm.ktpm.entity.RoleEntity;
 import com.ktpm.ktpm.entity.UserEntity;
 import com.ktpm.ktpm.repository.RoleRepository;
 import com.ktpm.ktpm.repository.UserRepository;
+import com.ktpm.ktpm.service.RoleCatalog;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import lombok.experimental.FieldDefaults;
@@ -26,6 +27,7 @@ public class ApplicationRunnerImpl implements ApplicationRunner {
     UserRepository userRepository;
     RoleRepository roleRepository;
     PasswordEncoder passwordEncoder;
+    RoleCatalog roleCatalog;
 
     @Override
     public void run(ApplicationArguments args) throws Exception {
@@ -59,6 +61,8 @@ public class ApplicationRunnerImpl implements ApplicationRunner {
             userRepository.save(admin);
             log.info("Admin user created: username=admin, password=admin123");
         }
+        // Roles có thể vừa được tạo ở trên
+        roleCatalog.refresh();
         log.info("Application init successfully");
     }
 }
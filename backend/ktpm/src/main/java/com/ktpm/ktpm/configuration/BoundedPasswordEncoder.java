@@ -0,0 +1,137 @@
+package com.ktpm.ktpm.configuration;
+
+import com.ktpm.ktpm.exception.AppException;
+import com.ktpm.ktpm.exception.ErrorType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Chạy BCrypt trên thread pool riêng có hàng đợi giới hạn,
+// để một đợt login/tạo user dồn dập không chiếm hết thread của Tomcat.
+// Thread của request vẫn bị chặn suốt lúc chờ và lúc băm: đây là vách ngăn (bulkhead), không phải bất đồng bộ.
+// BCrypt không kiểm tra interrupt nên một lần băm đã bắt đầu không thể hủy (cancel(true) vô tác dụng);
+// vì vậy queueTimeout chỉ giới hạn thời gian chờ trong hàng đợi. Task quá hạn được gỡ khỏi hàng đợi trước khi chạy,
+// còn task đã chạy thì luôn được chờ tới khi xong (khoảng 250-400ms với cost 12), không để worker băm cho request đã bỏ đi
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    PasswordEncoder delegate;
+    ThreadPoolExecutor executor;
+    Duration queueTimeout;
+    MeterRegistry meterRegistry;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity,
+                                  Duration queueTimeout, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.queueTimeout = queueTimeout;
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("password.hashing.queue.size", executor, e -> e.getQueue().size());
+        meterRegistry.gauge("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        String uri = RequestTags.currentUri();
+        return submit(uri, () -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String encoded = delegate.encode(rawPassword);
+            sample.stop(hashingTimer("encode", uri, "SUCCESS"));
+            return encoded;
+        });
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        String uri = RequestTags.currentUri();
+        return submit(uri, () -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            boolean matched = delegate.matches(rawPassword, encodedPassword);
+            sample.stop(hashingTimer("matches", uri, matched ? "MATCHED" : "MISMATCHED"));
+            return matched;
+        });
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // uri được lấy ở thread của request, thread hash không có request context
+    private Timer hashingTimer(String operation, String uri, String outcome) {
+        return meterRegistry.timer("password.hashing", "operation", operation, "uri", uri, "outcome", outcome);
+    }
+
+    private Counter rejectedCounter(String reason, String uri) {
+        return meterRegistry.counter("password.hashing.rejected", "reason", reason, "uri", uri);
+    }
+
+    private <T> T submit(String uri, Callable<T> task) {
+        // Ai đặt cờ trước thì thắng: worker (bắt đầu băm) hoặc request (bỏ cuộc vì chờ quá lâu)
+        AtomicBoolean claimed = new AtomicBoolean();
+        CountDownLatch started = new CountDownLatch(1);
+        Timer.Sample queued = Timer.start(meterRegistry);
+
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                if (!claimed.compareAndSet(false, true))
+                    return null;
+                queued.stop(meterRegistry.timer("password.hashing.queue.wait", "uri", uri));
+                started.countDown();
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            // Hàng đợi đầy -> từ chối ngay thay vì bắt request chờ
+            rejectedCounter("queue_full", uri).increment();
+            throw new AppException(ErrorType.TOO_MANY_REQUESTS);
+        }
+
+        try {
+            if (!started.await(queueTimeout.toMillis(), TimeUnit.MILLISECONDS) && claimed.compareAndSet(false, true)) {
+                // Chưa tới lượt: gỡ khỏi hàng đợi để trả chỗ ngay, worker không phải băm cho request đã bỏ đi
+                executor.remove((Runnable) future);
+                rejectedCounter("queue_timeout", uri).increment();
+                throw new AppException(ErrorType.SERVICE_UNAVAILABLE);
+            }
+            // Đã bắt đầu băm -> chờ xong, thời gian băm không tính vào queueTimeout
+            return future.get();
+        } catch (InterruptedException e) {
+            if (claimed.compareAndSet(false, true))
+                executor.remove((Runnable) future);
+            Thread.currentThread().interrupt();
+            throw new AppException(ErrorType.SERVICE_UNAVAILABLE);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            log.error("Password hashing failed", e.getCause());
+            throw new AppException(ErrorType.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.ktpm.ktpm.configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String PRODUCTS = "products";
+
+    @Value("${product.cache.spec}")
+    private String productCacheSpec;
+
+    @Bean
+    public ProductCache productCache() {
+        // Caffeine dùng W-TinyLFU nên không bị các lần quét danh sách đẩy mất sản phẩm "nóng"
+        return new ProductCache(PRODUCTS, Caffeine.from(productCacheSpec).build());
+    }
+
+    @Bean
+    public CacheManager cacheManager(ProductCache productCache) {
+        SimpleCacheManager simpleCacheManager = new SimpleCacheManager();
+        simpleCacheManager.setCaches(List.of(productCache));
+        simpleCacheManager.initializeCaches();
+
+        // @CacheEvict trong transaction chỉ được áp dụng sau khi commit
+        return new TransactionAwareCacheManagerProxy(simpleCacheManager);
+    }
+}
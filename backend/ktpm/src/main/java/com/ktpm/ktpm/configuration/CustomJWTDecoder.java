@@ -1,57 +1,84 @@
 package com.ktpm.ktpm.configuration;
 
-import com.ktpm.ktpm.dto.request.IntrospectRequest;
-import com.ktpm.ktpm.dto.response.IntrospectResponse;
-import com.ktpm.ktpm.exception.AppException;
-import com.ktpm.ktpm.exception.ErrorType;
 import com.ktpm.ktpm.service.AuthService;
-import com.nimbusds.jose.JOSEException;
-import org.springframework.beans.factory.annotation.Autowired;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
 import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.BadJwtException;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtClaimValidator;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.spec.SecretKeySpec;
-import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Objects;
 
 @Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class CustomJWTDecoder implements JwtDecoder {
-    @Value("${jwt.key}")
-    private String SIGNER_KEY;
+    AuthService authService;
+    VerifiedTokenCache verifiedTokenCache;
+    MeterRegistry meterRegistry;
+    NimbusJwtDecoder nimbusJwtDecoder;
 
-    @Autowired
-    private AuthService authService;
+    public CustomJWTDecoder(@Value("${jwt.key}") String signerKey, AuthService authService,
+                            VerifiedTokenCache verifiedTokenCache, MeterRegistry meterRegistry) {
+        this.authService = authService;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.meterRegistry = meterRegistry;
 
-    private NimbusJwtDecoder nimbusJwtDecoder = null;
+        SecretKeySpec secretKeySpec = new SecretKeySpec(signerKey.getBytes(), "HS512");
+
+        nimbusJwtDecoder = NimbusJwtDecoder
+                .withSecretKey(secretKeySpec)
+                .macAlgorithm(MacAlgorithm.HS512)
+                .build();
+
+        // Token bắt buộc có exp và hết hạn ngay tại exp (không cho phép lệch giờ)
+        nimbusJwtDecoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+                new JwtClaimValidator<Instant>(JwtClaimNames.EXP, Objects::nonNull),
+                new JwtTimestampValidator(Duration.ZERO)
+        ));
+    }
 
     @Override
     public Jwt decode(String token) throws JwtException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "INVALID";
         try {
-            IntrospectResponse response = authService.introspect(
-                    IntrospectRequest.builder()
-                            .token(token)
-                            .build()
-            );
-
-            if (!response.isValid())
-                throw new AppException(ErrorType.UNAUTHORIZED);
-        } catch (ParseException | JOSEException e) {
-            throw new JwtException(e.getMessage());
-        }
+            Jwt cached = verifiedTokenCache.get(token);
+            if (cached != null) {
+                outcome = "CACHED";
+                return cached;
+            }
+
+            long stamp = verifiedTokenCache.stamp();
+
+            // Parse + kiểm tra chữ ký + exp một lần duy nhất
+            Jwt jwt = nimbusJwtDecoder.decode(token);
 
-        if (Objects.isNull(nimbusJwtDecoder)) {
-            SecretKeySpec secretKeySpec = new SecretKeySpec(SIGNER_KEY.getBytes(), "HS512");
+            // Chế độ stateless: không tra danh sách thu hồi, request không cần đến DB hay trạng thái dùng chung
+            if (!authService.isStateless() && authService.isRevoked(jwt.getId())) {
+                outcome = "REVOKED";
+                throw new BadJwtException("Token has been revoked");
+            }
 
-            nimbusJwtDecoder = NimbusJwtDecoder
-                    .withSecretKey(secretKeySpec)
-                    .macAlgorithm(MacAlgorithm.HS512)
-                    .build();
+            verifiedTokenCache.put(token, jwt, stamp);
+            outcome = "VERIFIED";
+            return jwt;
+        } finally {
+            // Decode chạy trong security filter, trước khi xác định được handler -> chỉ tag theo outcome
+            sample.stop(meterRegistry.timer("jwt.decode", "outcome", outcome));
         }
-        return nimbusJwtDecoder.decode(token);
     }
 }
@@ -0,0 +1,56 @@
+package com.ktpm.ktpm.configuration;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.actuate.metrics.http.Outcome;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Ghi số câu SQL và thời gian lấy connection của mỗi request, tag theo uri/method/outcome như http.server.requests
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class JdbcMetricsFilter extends OncePerRequestFilter {
+    MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        JdbcRequestMetrics.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            JdbcRequestMetrics.Counters counters = JdbcRequestMetrics.stop();
+
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : RequestTags.UNKNOWN;
+            String outcome = Outcome.forStatus(response.getStatus()).name();
+
+            DistributionSummary.builder("http.server.requests.jdbc.statements")
+                    .baseUnit("statements")
+                    .tags("uri", uri, "method", request.getMethod(), "outcome", outcome)
+                    .register(meterRegistry)
+                    .record(counters.getStatements());
+
+            Timer.builder("http.server.requests.jdbc.connection.acquire")
+                    .tags("uri", uri, "method", request.getMethod(), "outcome", outcome)
+                    .register(meterRegistry)
+                    .record(counters.getConnectionAcquireNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.ktpm.ktpm.configuration;
+
+// Bộ đếm JDBC cho request (thread) hiện tại: số câu SQL và thời gian chờ lấy connection từ Hikari
+public final class JdbcRequestMetrics {
+    private static final ThreadLocal<Counters> CURRENT = new ThreadLocal<>();
+
+    private JdbcRequestMetrics() {
+    }
+
+    public static void start() {
+        CURRENT.set(new Counters());
+    }
+
+    public static Counters stop() {
+        Counters counters = CURRENT.get();
+        CURRENT.remove();
+        return counters != null ? counters : new Counters();
+    }
+
+    static void statementPrepared() {
+        Counters counters = CURRENT.get();
+        if (counters != null)
+            counters.statements++;
+    }
+
+    static void connectionAcquired(long nanos) {
+        Counters counters = CURRENT.get();
+        if (counters != null)
+            counters.connectionAcquireNanos += nanos;
+    }
+
+    public static class Counters {
+        int statements;
+        long connectionAcquireNanos;
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public long getConnectionAcquireNanos() {
+            return connectionAcquireNanos;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.ktpm.ktpm.configuration;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+@Configuration
+public class MetricsConfig {
+
+    // Hibernate gọi inspector mỗi lần chuẩn bị một câu SQL
+    @Bean
+    public HibernatePropertiesCustomizer jdbcStatementCounter() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+            JdbcRequestMetrics.statementPrepared();
+            return sql;
+        });
+    }
+
+    // Đo thời gian getConnection() trên DataSource chính (thời gian chờ connection của Hikari)
+    @Bean
+    public static BeanPostProcessor connectionAcquireTimer() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || !"dataSource".equals(beanName))
+                    return bean;
+
+                return new DelegatingDataSource(dataSource) {
+                    @Override
+                    public Connection getConnection() throws SQLException {
+                        long start = System.nanoTime();
+                        try {
+                            return super.getConnection();
+                        } finally {
+                            JdbcRequestMetrics.connectionAcquired(System.nanoTime() - start);
+                        }
+                    }
+                };
+            }
+        };
+    }
+}
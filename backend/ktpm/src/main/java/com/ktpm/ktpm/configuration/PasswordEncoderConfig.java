@@ -0,0 +1,36 @@
+package com.ktpm.ktpm.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+@Configuration
+public class PasswordEncoderConfig {
+
+    // 0 = số CPU
+    @Value("${security.password-hashing.threads}")
+    private int threads;
+
+    @Value("${security.password-hashing.queue-capacity}")
+    private int queueCapacity;
+
+    // Chỉ tính thời gian chờ trong hàng đợi, không tính thời gian băm
+    @Value("${security.password-hashing.queue-timeout}")
+    private Duration queueTimeout;
+
+    @Bean(destroyMethod = "shutdown")
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(12),
+                threads > 0 ? threads : Runtime.getRuntime().availableProcessors(),
+                queueCapacity,
+                queueTimeout,
+                meterRegistry
+        );
+    }
+}
@@ -0,0 +1,76 @@
+package com.ktpm.ktpm.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.ktpm.ktpm.dto.response.ProductResponse;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Cache sản phẩm theo id. Lần nạp bắt đầu trước một lần cập nhật không được ghi đè giá trị cũ trở lại
+// sau khi evict: put chỉ giữ bản có version cao hơn và bị bỏ nếu có evict xảy ra trong lúc nạp
+public class ProductCache extends CaffeineCache {
+    // Tăng mỗi lần evict/clear, cùng cách với VerifiedTokenCache
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ProductCache(String name, Cache<Object, Object> cache) {
+        super(name, cache, false);
+    }
+
+    public ProductResponse find(String id) {
+        return (ProductResponse) getNativeCache().getIfPresent(id);
+    }
+
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    // stamp phải được lấy trước khi đọc DB; trong transaction thì chỉ put sau khi commit
+    public void put(ProductResponse product, long stamp) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    putIfCurrent(product, stamp);
+                }
+            });
+        } else {
+            putIfCurrent(product, stamp);
+        }
+    }
+
+    private void putIfCurrent(ProductResponse product, long stamp) {
+        ConcurrentMap<Object, Object> map = getNativeCache().asMap();
+        map.merge(product.getId(), product, (current, loaded) ->
+                ((ProductResponse) current).getVersion() >= ((ProductResponse) loaded).getVersion() ? current : loaded);
+
+        if (invalidations.get() != stamp)
+            map.remove(product.getId(), product);
+    }
+
+    @Override
+    public void evict(Object key) {
+        invalidations.incrementAndGet();
+        super.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        invalidations.incrementAndGet();
+        return super.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        invalidations.incrementAndGet();
+        super.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        invalidations.incrementAndGet();
+        return super.invalidate();
+    }
+}
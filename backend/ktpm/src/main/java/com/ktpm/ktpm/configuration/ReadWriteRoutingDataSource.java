@@ -0,0 +1,68 @@
+package com.ktpm.ktpm.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Transaction readOnly -> replica, còn lại -> primary.
+// Phải đặt sau LazyConnectionDataSourceProxy: connection chỉ được lấy ở câu SQL đầu tiên, lúc cờ readOnly đã được set
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    ReplicaLagMonitor lagMonitor;
+    Counter primaryWrites;
+    Counter primaryPinned;
+    Counter primaryLagging;
+    Counter replicaReads;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica,
+                                      ReplicaLagMonitor lagMonitor, MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.primaryWrites = routeCounter(meterRegistry, Route.PRIMARY, "write");
+        this.primaryPinned = routeCounter(meterRegistry, Route.PRIMARY, "read_your_writes");
+        this.primaryLagging = routeCounter(meterRegistry, Route.PRIMARY, "replica_lagging");
+        this.replicaReads = routeCounter(meterRegistry, Route.REPLICA, "read");
+
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // Sau khi ghi, các lần đọc tiếp theo trong request phải thấy được dữ liệu vừa ghi
+            if (TransactionSynchronizationManager.isActualTransactionActive())
+                ReplicaRouting.written();
+            primaryWrites.increment();
+            return Route.PRIMARY;
+        }
+
+        if (ReplicaRouting.isPinnedToPrimary()) {
+            primaryPinned.increment();
+            return Route.PRIMARY;
+        }
+
+        if (!lagMonitor.isReplicaUsable()) {
+            primaryLagging.increment();
+            return Route.PRIMARY;
+        }
+
+        replicaReads.increment();
+        return Route.REPLICA;
+    }
+
+    private static Counter routeCounter(MeterRegistry meterRegistry, Route route, String reason) {
+        return meterRegistry.counter("datasource.routing", "target", route.name().toLowerCase(), "reason", reason);
+    }
+
+    enum Route {
+        PRIMARY,
+        REPLICA
+    }
+}
@@ -0,0 +1,62 @@
+package com.ktpm.ktpm.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+// User vừa ghi thì các request tiếp theo trong sticky-window cũng đọc từ primary (chờ replica bắt kịp).
+// Chạy sau security filter để biết user của request
+@Component
+@ConditionalOnProperty(prefix = "datasource.replica", name = "enabled", havingValue = "true")
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(@Value("${datasource.replica.sticky-window}") Duration stickyWindow) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickyWindow)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String user = currentUser();
+        if (user != null && recentWriters.getIfPresent(user) != null)
+            ReplicaRouting.pinToPrimary();
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (user != null && ReplicaRouting.hasWritten())
+                recentWriters.put(user, Boolean.TRUE);
+            ReplicaRouting.clear();
+        }
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken)
+            return null;
+        return authentication.getName();
+    }
+}
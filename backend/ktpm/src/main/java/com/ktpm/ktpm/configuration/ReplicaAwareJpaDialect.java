@@ -0,0 +1,30 @@
+package com.ktpm.ktpm.configuration;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.SQLException;
+
+// Second-level cache dùng chung cho mọi transaction, còn transaction readOnly có thể đọc từ replica đang trễ.
+// Entry hết hạn hoặc bị đẩy ra ngay sau khi ghi -> lần đọc từ replica sau đó sẽ put bản cũ vào lại.
+// Session có thể đi replica vẫn được đọc từ L2 nhưng không được ghi vào
+public class ReplicaAwareJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+
+        // Bị ghim vào primary (đã ghi, onPrimary) thì được put như bình thường.
+        // Đặt qua property: find() đọc store mode từ property của EntityManager chứ không từ CacheMode của Session.
+        // Luôn set lại vì EntityManager có thể được dùng lại cho transaction sau (open-in-view)
+        boolean mayReadReplica = definition.isReadOnly() && !ReplicaRouting.isPinnedToPrimary();
+        entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE,
+                mayReadReplica ? CacheStoreMode.BYPASS : CacheStoreMode.USE);
+
+        return transactionData;
+    }
+}
@@ -0,0 +1,79 @@
+package com.ktpm.ktpm.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Đo độ trễ replica bằng heartbeat: ghi thời điểm vào primary, đọc lại trên replica ở lần kiểm tra sau.
+// Replica trễ quá max-lag hoặc không kết nối được -> mọi lần đọc quay về primary
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ReplicaLagMonitor {
+    JdbcTemplate primary;
+    JdbcTemplate replica;
+    long maxLagMillis;
+    AtomicLong lagMillis = new AtomicLong(-1);
+
+    // Beat gần nhất đã ghi vào primary, 0 = chưa ghi lần nào
+    @NonFinal
+    volatile long lastBeat;
+
+    @NonFinal
+    volatile boolean replicaUsable;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxLag, MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLag.toMillis();
+
+        // -1 khi không đo được
+        meterRegistry.gauge("datasource.replica.lag", lagMillis, AtomicLong::get);
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval}")
+    public void check() {
+        long lag = -1;
+        try {
+            Long replicated = replica.query("select beat_at from replica_heartbeat where id = 1",
+                    rs -> rs.next() ? rs.getLong(1) : null);
+            // Lần đầu chưa biết beat nào đã ghi -> chưa kết luận được, vẫn đọc từ primary.
+            // Replica chưa có beat mới nhất thì trễ ít nhất từ beat nó đang có (sai số tối đa một lag-check-interval)
+            if (replicated != null && lastBeat > 0)
+                lag = replicated >= lastBeat ? 0 : System.currentTimeMillis() - replicated;
+        } catch (DataAccessException e) {
+            log.warn("Cannot read replica heartbeat: {}", e.getMessage());
+        }
+
+        boolean usable = lag >= 0 && lag <= maxLagMillis;
+        if (usable != replicaUsable)
+            log.info("Replica {} (lag {} ms)", usable ? "in use" : "bypassed", lag);
+        lagMillis.set(lag);
+        replicaUsable = usable;
+
+        try {
+            // Bảng tạo trên primary rồi được replication đưa sang replica
+            if (lastBeat == 0)
+                primary.execute("create table if not exists replica_heartbeat (id int primary key, beat_at bigint not null)");
+
+            long now = System.currentTimeMillis();
+            if (primary.update("update replica_heartbeat set beat_at = ? where id = 1", now) == 0)
+                primary.update("insert into replica_heartbeat (id, beat_at) values (1, ?)", now);
+            lastBeat = now;
+        } catch (DataAccessException e) {
+            log.warn("Cannot write replica heartbeat: {}", e.getMessage());
+        }
+    }
+}
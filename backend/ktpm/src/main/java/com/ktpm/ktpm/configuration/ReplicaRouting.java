@@ -0,0 +1,51 @@
+package com.ktpm.ktpm.configuration;
+
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.function.Supplier;
+
+// Trạng thái định tuyến của request (thread) hiện tại: đã ghi hoặc bị ghim vào primary thì không đọc từ replica nữa
+public final class ReplicaRouting {
+    // TRUE: request đã ghi, FALSE: chỉ bị ghim vào primary
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    public static void pinToPrimary() {
+        if (PINNED.get() == null)
+            PINNED.set(Boolean.FALSE);
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED.get() != null;
+    }
+
+    public static boolean hasWritten() {
+        return Boolean.TRUE.equals(PINNED.get());
+    }
+
+    public static void clear() {
+        PINNED.remove();
+    }
+
+    // Chạy action chỉ đọc nhưng cần dữ liệu mới nhất (không chấp nhận độ trễ của replica)
+    public static <T> T onPrimary(Supplier<T> action) {
+        if (isPinnedToPrimary())
+            return action.get();
+
+        pinToPrimary();
+        try {
+            return action.get();
+        } finally {
+            clear();
+        }
+    }
+
+    // Chỉ ghi nhận trong request (ReadYourWritesFilter sẽ clear). Thread của scheduler/listener không có ai clear,
+    // ghi nhận ở đó sẽ ghim thread vào primary mãi mãi
+    static void written() {
+        if (RequestContextHolder.getRequestAttributes() != null)
+            PINNED.set(Boolean.TRUE);
+    }
+}
@@ -0,0 +1,22 @@
+package com.ktpm.ktpm.configuration;
+
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+// Tag "uri" giống http.server.requests: URI pattern của handler (vd: /product/{id}), không phải URI thực tế
+public final class RequestTags {
+    public static final String UNKNOWN = "UNKNOWN";
+
+    private RequestTags() {
+    }
+
+    public static String currentUri() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            Object pattern = attributes.getRequest().getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null)
+                return pattern.toString();
+        }
+        return UNKNOWN;
+    }
+}
@@ -0,0 +1,63 @@
+package com.ktpm.ktpm.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Cache các token đã xác thực (chữ ký + thu hồi), mỗi entry hết hạn đúng theo claim exp của token
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class VerifiedTokenCache {
+    public static final String CACHE_NAME = "verifiedTokens";
+
+    Cache<String, Jwt> cache;
+    // Tăng mỗi lần thu hồi, dùng để bỏ các entry được put trong lúc có logout song song
+    AtomicLong invalidations = new AtomicLong();
+
+    public VerifiedTokenCache(@Value("${jwt.cache.maximum-size}") long maximumSize, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.<String, Jwt>creating((token, jwt) ->
+                        Duration.between(Instant.now(), jwt.getExpiresAt())))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public Jwt get(String token) {
+        return cache.getIfPresent(token);
+    }
+
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    // stamp phải được lấy trước khi kiểm tra thu hồi token
+    public void put(String token, Jwt jwt, long stamp) {
+        Instant expiresAt = jwt.getExpiresAt();
+        if (expiresAt == null || !expiresAt.isAfter(Instant.now()))
+            return;
+
+        cache.put(token, jwt);
+
+        if (invalidations.get() != stamp)
+            cache.invalidate(token);
+    }
+
+    public void invalidate(String token) {
+        invalidations.incrementAndGet();
+        cache.invalidate(token);
+    }
+}
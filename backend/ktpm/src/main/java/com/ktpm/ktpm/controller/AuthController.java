@@ -2,6 +2,7 @@ package com.ktpm.ktpm.controller;
 
 import com.ktpm.ktpm.dto.request.AuthRequest;
 import com.ktpm.ktpm.dto.request.LogoutRequest;
+import com.ktpm.ktpm.dto.request.RefreshRequest;
 import com.ktpm.ktpm.dto.response.ApiResponse;
 import com.ktpm.ktpm.dto.response.AuthResponse;
 import com.ktpm.ktpm.service.AuthService;
@@ -30,6 +31,11 @@ public class AuthController {
         return new ApiResponse<AuthResponse>(response, "login successfully");
     }
 
+    @PostMapping("/refresh")
+    public ApiResponse<AuthResponse> refresh(@RequestBody RefreshRequest request) {
+        return new ApiResponse<>(authService.refresh(request), "Refresh token successfully");
+    }
+
     @PostMapping("/logout")
     public ApiResponse<String> logout(@RequestBody LogoutRequest request) throws JOSEException, ParseException {
         authService.logout(request);
@@ -1,15 +1,42 @@
 package com.ktpm.ktpm.controller;
 
+import com.ktpm.ktpm.dto.request.InventoryRequest;
 import com.ktpm.ktpm.dto.request.ProductCreationRequest;
+import com.ktpm.ktpm.dto.request.ProductPageRequest;
 import com.ktpm.ktpm.dto.request.ProductUpdateRequest;
 import com.ktpm.ktpm.dto.response.ApiResponse;
+import com.ktpm.ktpm.dto.response.BulkImportResponse;
+import com.ktpm.ktpm.dto.response.CursorPageResponse;
+import com.ktpm.ktpm.dto.response.InventoryResponse;
+import com.ktpm.ktpm.dto.response.ProductBatchResponse;
+import com.ktpm.ktpm.dto.response.ProductPatchResponse;
 import com.ktpm.ktpm.dto.response.ProductResponse;
+import com.ktpm.ktpm.dto.response.ProductSyncResponse;
+import com.ktpm.ktpm.exception.AppException;
+import com.ktpm.ktpm.exception.ErrorType;
+import com.ktpm.ktpm.service.InventoryService;
+import com.ktpm.ktpm.service.ProductCatalogSnapshot;
+import com.ktpm.ktpm.service.ProductCatalogVersion;
+import com.ktpm.ktpm.service.ProductChangeFeed;
+import com.ktpm.ktpm.service.ProductChangeLog;
+import com.ktpm.ktpm.service.ProductImportService;
 import com.ktpm.ktpm.service.ProductService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 
 @RestController
@@ -19,6 +46,12 @@ import java.util.List;
 public class ProductController {
 
     ProductService productService;
+    ProductImportService productImportService;
+    InventoryService inventoryService;
+    ProductCatalogVersion productCatalogVersion;
+    ProductCatalogSnapshot productCatalogSnapshot;
+    ProductChangeFeed productChangeFeed;
+    ProductChangeLog productChangeLog;
 
     @PostMapping
     public ApiResponse<ProductResponse> createProduct(@RequestBody ProductCreationRequest request) {
@@ -26,16 +59,84 @@ public class ProductController {
         return new ApiResponse<>(response, "Create product successfully");
     }
 
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ApiResponse<BulkImportResponse> importProducts(InputStream body) throws IOException {
+        BulkImportResponse response = productImportService.importProducts(body);
+        return new ApiResponse<>(response, "Import products successfully");
+    }
+
+    // Giỏ hàng/đơn hàng: nhiều sản phẩm trong một request, ?ids=a,b,c (tối đa product.batch.max-size id)
+    @GetMapping("/batch")
+    public ResponseEntity<ApiResponse<ProductBatchResponse>> getProductsByIds(@RequestParam List<String> ids) {
+        ProductBatchResponse response = productService.getProductsByIds(ids);
+        return ResponseEntity.ok()
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(new ApiResponse<>(response, "Get products successfully"));
+    }
+
+    // ETag theo version của sản phẩm: Spring tự trả 304 (không serialize body) khi khớp If-None-Match/If-Modified-Since
     @GetMapping("/{id}")
-    public ApiResponse<ProductResponse> getProductById(@PathVariable String id) {
+    public ResponseEntity<ApiResponse<ProductResponse>> getProductById(@PathVariable String id) {
         ProductResponse response = productService.getProductById(id);
-        return new ApiResponse<>(response, "Get product successfully");
+        LocalDateTime lastModified = response.getUpdatedAt() != null ? response.getUpdatedAt() : response.getCreatedAt();
+
+        return ResponseEntity.ok()
+                .varyBy(HttpHeaders.ACCEPT)
+                .eTag("v" + response.getVersion())
+                .lastModified(lastModified.atZone(ZoneId.systemDefault()))
+                .body(new ApiResponse<>(response, "Get product successfully"));
     }
 
+    // ETag theo version của cả danh mục, kiểm tra trước khi đọc DB.
+    // Trang mặc định được trả thẳng từ snapshot đã serialize/nén sẵn
     @GetMapping
-    public ApiResponse<List<ProductResponse>> getAllProducts() {
-        List<ProductResponse> responseList = productService.getAllProducts();
-        return new ApiResponse<>(responseList, "Get all products successfully");
+    public ResponseEntity<ApiResponse<CursorPageResponse<ProductResponse>>> getAllProducts(ProductPageRequest request,
+                                                                                            WebRequest webRequest,
+                                                                                            HttpServletResponse response)
+            throws IOException {
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+
+        // Lấy version trước khi đọc: nếu có ghi xen giữa thì lần sau client chỉ nhận lại 200, không bị 304 sai
+        ProductCatalogVersion.Snapshot version = productCatalogVersion.current();
+        // Client muốn Smile/CBOR thì đi đường thông thường qua message converter
+        ProductCatalogSnapshot.Entry snapshot = ProductCatalogSnapshot.acceptsJson(webRequest.getHeader(HttpHeaders.ACCEPT))
+                ? productCatalogSnapshot.current(request, version)
+                : null;
+        boolean gzip = snapshot != null
+                && ProductCatalogSnapshot.acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+
+        if (webRequest.checkNotModified(productCatalogVersion.etag(version, gzip), version.lastModified().toEpochMilli()))
+            return null;
+
+        if (snapshot != null) {
+            productCatalogSnapshot.write(snapshot, gzip, response);
+            return null;
+        }
+
+        CursorPageResponse<ProductResponse> page = productService.getProducts(request);
+        return ResponseEntity.ok(new ApiResponse<>(page, ProductCatalogSnapshot.MESSAGE));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        StreamingResponseBody body = productService::exportProducts;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // Nhận thay đổi sản phẩm qua SSE, trình duyệt tự gửi Last-Event-ID khi kết nối lại
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return productChangeFeed.subscribe(lastEventId);
+    }
+
+    // Delta-sync: các thay đổi sau mốc since (0 = từ đầu), 410 nếu mốc đã quá cũ
+    @GetMapping("/changes")
+    public ApiResponse<ProductSyncResponse> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                       @RequestParam(required = false) Integer size) {
+        ProductSyncResponse response = productChangeLog.getChanges(since, size);
+        return new ApiResponse<>(response, "Get product changes successfully");
     }
 
     @PutMapping("/{id}")
@@ -44,9 +145,53 @@ public class ProductController {
         return new ApiResponse<>(response, "Update product successfully");
     }
 
+    // Sửa một phần: If-Match là ETag lấy từ GET /product/{id}, trả 409 nếu sản phẩm đã bị sửa sau lần đọc đó.
+    // Body chỉ gồm các trường đã đổi và version mới (ProductPatchResponse)
+    @PatchMapping("/{id}")
+    public ResponseEntity<ApiResponse<ProductPatchResponse>> patchProduct(@PathVariable String id,
+                                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                                     @RequestBody ProductUpdateRequest request) {
+        ProductPatchResponse response = productService.patchProduct(id, parseVersion(ifMatch), request);
+        return ResponseEntity.ok()
+                .eTag("v" + response.getVersion())
+                .body(new ApiResponse<>(response, "Patch product successfully"));
+    }
+
+    // Giữ hàng khi mua, trả 409 nếu không đủ số lượng
+    @PostMapping("/{id}/reserve")
+    public ApiResponse<InventoryResponse> reserve(@PathVariable String id, @RequestBody InventoryRequest request) {
+        InventoryResponse response = inventoryService.reserve(id, request);
+        return new ApiResponse<>(response, "Reserve product successfully");
+    }
+
+    // Trả lại hàng đã giữ (hủy đơn), chỉ admin
+    @PostMapping("/{id}/release")
+    public ApiResponse<InventoryResponse> release(@PathVariable String id, @RequestBody InventoryRequest request) {
+        InventoryResponse response = inventoryService.release(id, request);
+        return new ApiResponse<>(response, "Release product successfully");
+    }
+
     @DeleteMapping("/{id}")
     public ApiResponse<Void> deleteProduct(@PathVariable String id) {
         productService.deleteProduct(id);
         return new ApiResponse<>(null, "Delete product successfully");
     }
+
+    // ETag dạng "v<version>", chấp nhận cả weak ETag (W/"v3")
+    private static long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank())
+            throw new AppException(ErrorType.PRECONDITION_REQUIRED);
+
+        String etag = ifMatch.trim();
+        if (etag.startsWith("W/"))
+            etag = etag.substring(2);
+        etag = etag.replace("\"", "");
+        if (!etag.startsWith("v"))
+            throw new AppException(ErrorType.BAD_REQUEST);
+        try {
+            return Long.parseLong(etag.substring(1));
+        } catch (NumberFormatException e) {
+            throw new AppException(ErrorType.BAD_REQUEST);
+        }
+    }
 }
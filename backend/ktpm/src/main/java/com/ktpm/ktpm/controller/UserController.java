@@ -1,7 +1,9 @@
 package com.ktpm.ktpm.controller;
 
 import com.ktpm.ktpm.dto.request.UserCreationRequest;
+import com.ktpm.ktpm.dto.request.UserPageRequest;
 import com.ktpm.ktpm.dto.response.ApiResponse;
+import com.ktpm.ktpm.dto.response.CursorPageResponse;
 import com.ktpm.ktpm.dto.response.UserResponse;
 import com.ktpm.ktpm.service.UserService;
 import lombok.AccessLevel;
@@ -10,8 +12,6 @@ import lombok.experimental.FieldDefaults;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/user")
 @RequiredArgsConstructor
@@ -27,10 +27,10 @@ public class UserController {
         return new ApiResponse<>(response, "Create user successfully");
     }
 
-    // Lấy tất cả users, chỉ admin
+    // Lấy danh sách users theo trang (cursor), chỉ admin
     @GetMapping
-    public ApiResponse<List<UserResponse>> getAllUsers() {
-        List<UserResponse> users = userService.getAllUsers();
+    public ApiResponse<CursorPageResponse<UserResponse>> getAllUsers(UserPageRequest request) {
+        CursorPageResponse<UserResponse> users = userService.getUsers(request);
         return new ApiResponse<>(users, "List of users");
     }
 
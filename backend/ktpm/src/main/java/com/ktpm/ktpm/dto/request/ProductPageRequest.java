@@ -0,0 +1,20 @@
+package com.ktpm.ktpm.dto.request;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProductPageRequest {
+    String cursor;         // nextCursor của trang trước, bỏ trống để lấy trang đầu
+    Integer size;          // Số sản phẩm mỗi trang
+    BigDecimal minPrice;
+    BigDecimal maxPrice;
+    String name;           // Lọc theo tiền tố tên sản phẩm
+}
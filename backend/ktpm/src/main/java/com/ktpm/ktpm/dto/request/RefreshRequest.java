@@ -0,0 +1,13 @@
+package com.ktpm.ktpm.dto.request;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RefreshRequest {
+    String refreshToken;
+}
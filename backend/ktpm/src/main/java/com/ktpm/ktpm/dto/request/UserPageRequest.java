@@ -0,0 +1,15 @@
+package com.ktpm.ktpm.dto.request;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UserPageRequest {
+    String cursor;         // nextCursor của trang trước, bỏ trống để lấy trang đầu
+    Integer size;          // Số user mỗi trang
+}
@@ -0,0 +1,20 @@
+package com.ktpm.ktpm.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BulkImportResponse {
+
+    int total;             // Số phần tử đã đọc
+    int succeeded;
+    int failed;
+    List<BulkItemError> errors; // Chỉ giữ tối đa product.import.max-reported-errors lỗi đầu tiên
+}
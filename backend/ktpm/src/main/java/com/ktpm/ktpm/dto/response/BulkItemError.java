@@ -0,0 +1,16 @@
+package com.ktpm.ktpm.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BulkItemError {
+
+    int index;             // Vị trí phần tử trong request (bắt đầu từ 0)
+    String message;
+}
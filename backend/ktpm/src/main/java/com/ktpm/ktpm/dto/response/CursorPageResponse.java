@@ -0,0 +1,19 @@
+package com.ktpm.ktpm.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CursorPageResponse<ItemType> {
+
+    List<ItemType> items;
+    String nextCursor;     // null nếu đã là trang cuối
+    boolean hasNext;
+}
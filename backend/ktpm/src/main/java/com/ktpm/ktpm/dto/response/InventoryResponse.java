@@ -0,0 +1,16 @@
+package com.ktpm.ktpm.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class InventoryResponse {
+
+    String productId;
+    int amount;            // Số lượng còn lại sau khi giữ/trả hàng
+}
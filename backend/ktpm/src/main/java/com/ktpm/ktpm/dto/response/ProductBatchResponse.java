@@ -0,0 +1,18 @@
+package com.ktpm.ktpm.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProductBatchResponse {
+
+    List<ProductResponse> items;  // Theo thứ tự id trong request (id trùng chỉ trả một lần)
+    List<String> missing;         // Các id không tồn tại, cũng theo thứ tự trong request
+}
@@ -0,0 +1,24 @@
+package com.ktpm.ktpm.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductChangeResponse {
+
+    Long seq;              // Chỉ có ở GET /product/changes
+    String type;           // SSE: CREATED, UPDATED, PATCHED, DELETED, STOCK_CHANGED, IMPORTED; delta-sync: UPSERT, DELETE
+    String productId;
+    ProductResponse product; // Dữ liệu mới với CREATED/UPDATED/UPSERT, chỉ các trường đã đổi với PATCHED
+    Integer amount;        // Số lượng còn lại với STOCK_CHANGED
+    List<String> productIds; // Các sản phẩm được tạo trong một chunk với IMPORTED (không có productId)
+}
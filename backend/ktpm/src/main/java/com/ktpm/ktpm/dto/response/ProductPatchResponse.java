@@ -0,0 +1,28 @@
+package com.ktpm.ktpm.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Kết quả PATCH /product/{id}: sản phẩm không được đọc lại sau UPDATE nên chỉ có id, các trường đã gửi lên,
+// updatedAt và version mới. Trường không đổi không có trong JSON; cần bản đầy đủ thì GET /product/{id}
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductPatchResponse {
+
+    String id;
+    String productName;    // Chỉ có khi được sửa
+    String description;    // Chỉ có khi được sửa
+    BigDecimal price;      // Chỉ có khi được sửa
+    Integer amount;        // Chỉ có khi được sửa
+    LocalDateTime updatedAt;
+    long version;          // Version mới, dùng cho If-Match của lần sửa sau
+}
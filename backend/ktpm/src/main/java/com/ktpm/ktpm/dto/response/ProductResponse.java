@@ -20,4 +20,6 @@ public class ProductResponse {
     BigDecimal price;      // Giá sản phẩm
     Integer amount;      // Số lượng
     LocalDateTime createdAt; // Thời điểm tạo sản phẩm
+    LocalDateTime updatedAt; // Thời điểm cập nhật gần nhất
+    long version;          // Tăng mỗi lần sản phẩm thay đổi
 }
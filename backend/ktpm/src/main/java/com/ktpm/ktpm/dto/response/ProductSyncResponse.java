@@ -0,0 +1,19 @@
+package com.ktpm.ktpm.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProductSyncResponse {
+
+    List<ProductChangeResponse> changes;
+    long lastSeq;          // Dùng làm since cho lần gọi tiếp theo
+    boolean hasMore;       // true nếu nên gọi tiếp ngay với since = lastSeq
+}
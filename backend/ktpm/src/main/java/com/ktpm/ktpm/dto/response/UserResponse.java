@@ -3,6 +3,8 @@ package com.ktpm.ktpm.dto.response;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
+import java.util.Set;
+
 @Getter
 @Setter
 @NoArgsConstructor
@@ -14,4 +16,5 @@ public class UserResponse {
     String id;
     String username;
     String email;
+    Set<String> roles;
 }
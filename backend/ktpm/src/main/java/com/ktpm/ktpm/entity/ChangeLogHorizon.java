@@ -0,0 +1,21 @@
+package com.ktpm.ktpm.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+// seq lớn nhất trong các tombstone đã bị dọn: client đồng bộ từ mốc nhỏ hơn có thể đã bỏ lỡ lần xóa -> phải tải lại toàn bộ
+@Entity
+@Table(name = "change_log_horizon")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ChangeLogHorizon {
+    @Id
+    String name;
+    long purgedThroughSeq;
+}
@@ -2,12 +2,15 @@ package com.ktpm.ktpm.entity;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
 import java.util.Date;
 
 @Entity
+@Table(indexes = @Index(name = "idx_invalidated_token_expiry_time", columnList = "expiry_time"))
 @Data
 @Builder
 @NoArgsConstructor
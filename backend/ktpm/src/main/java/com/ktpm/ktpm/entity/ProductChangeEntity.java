@@ -0,0 +1,40 @@
+package com.ktpm.ktpm.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+// Nhật ký thay đổi sản phẩm cho delta-sync: seq tăng dần theo mỗi lần ghi, xóa được giữ lại dạng tombstone.
+// Chỉ bản ghi mới nhất của mỗi sản phẩm có ý nghĩa, các bản cũ hơn được dọn định kỳ
+@Entity
+@Table(name = "product_change", indexes = {
+        @Index(name = "idx_product_change_product_seq", columnList = "product_id, seq"),
+        @Index(name = "idx_product_change_type_changed_at", columnList = "change_type, changed_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProductChangeEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long seq;
+
+    @Column(name = "product_id", nullable = false, length = 36)
+    String productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 10)
+    ChangeType changeType;
+
+    @Column(name = "changed_at", nullable = false)
+    LocalDateTime changedAt;
+
+    public enum ChangeType {
+        UPSERT, DELETE
+    }
+}
@@ -3,12 +3,21 @@ package com.ktpm.ktpm.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+// Không dùng second-level cache: mỗi câu UPDATE HQL (đặt/trả hàng, PATCH) xóa cả region,
+// đọc theo id đã có ProductCache (chỉ evict đúng sản phẩm thay đổi)
 @Entity
-@Table(name = "product")
+@Table(name = "product", indexes = {
+        @Index(name = "idx_product_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_product_price", columnList = "price"),
+        @Index(name = "idx_product_name", columnList = "product_name")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -16,8 +25,12 @@ import java.time.LocalDateTime;
 @Builder
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class ProductEntity {
+    // UUIDv7 lưu BINARY(16): insert theo thứ tự thời gian, khóa chính và các index phụ nhỏ hơn VARCHAR(36)
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
+    @JavaType(UuidBinaryJavaType.class)
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16)
     String id;
 
     @Column(nullable = false)
@@ -33,8 +46,21 @@ public class ProductEntity {
     @Column(name = "created_at")
     LocalDateTime createdAt;
 
+    @Column(name = "updated_at")
+    LocalDateTime updatedAt;
+
+    // Tăng mỗi lần cập nhật, dùng làm ETag; các câu UPDATE trực tiếp phải dùng "update versioned"
+    @Version
+    long version;
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
     }
 }
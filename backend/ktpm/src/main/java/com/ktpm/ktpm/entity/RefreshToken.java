@@ -0,0 +1,33 @@
+package com.ktpm.ktpm.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Date;
+
+// Chỉ lưu hash của refresh token; các token sinh ra từ cùng một lần login thuộc cùng family
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_refresh_token_family_id", columnList = "family_id"),
+        @Index(name = "idx_refresh_token_user_id", columnList = "user_id"),
+        @Index(name = "idx_refresh_token_expiry_time", columnList = "expiry_time")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RefreshToken {
+    @Id
+    String tokenHash;
+    String familyId;
+    String userId;
+    Date expiryTime;
+    // Khác null nghĩa là token đã được đổi sang token mới
+    Date usedAt;
+    boolean revoked;
+}
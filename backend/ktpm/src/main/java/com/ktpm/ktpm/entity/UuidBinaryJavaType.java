@@ -0,0 +1,46 @@
+package com.ktpm.ktpm.entity;
+
+import com.ktpm.ktpm.util.Uuids;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.AbstractClassJavaType;
+
+// Id vẫn là String trong code và API, trong DB lưu BINARY(16) thay vì VARCHAR(36).
+// Dùng JavaType thay vì AttributeConverter vì Hibernate không áp dụng converter cho @Id
+public class UuidBinaryJavaType extends AbstractClassJavaType<String> {
+    public UuidBinaryJavaType() {
+        super(String.class);
+    }
+
+    @Override
+    public String toString(String value) {
+        return value;
+    }
+
+    @Override
+    public String fromString(CharSequence string) {
+        return string == null ? null : string.toString();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <X> X unwrap(String value, Class<X> type, WrapperOptions options) {
+        if (value == null)
+            return null;
+        if (byte[].class.equals(type))
+            return (X) Uuids.toBytes(value);
+        if (String.class.equals(type) || Object.class.equals(type))
+            return (X) value;
+        throw unknownUnwrap(type);
+    }
+
+    @Override
+    public <X> String wrap(X value, WrapperOptions options) {
+        if (value == null)
+            return null;
+        if (value instanceof byte[] bytes)
+            return Uuids.toString(bytes);
+        if (value instanceof String string)
+            return string;
+        throw unknownWrap(value.getClass());
+    }
+}
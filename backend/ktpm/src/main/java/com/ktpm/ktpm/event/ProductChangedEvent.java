@@ -0,0 +1,51 @@
+package com.ktpm.ktpm.event;
+
+import com.ktpm.ktpm.dto.response.ProductPatchResponse;
+import com.ktpm.ktpm.dto.response.ProductResponse;
+
+import java.util.List;
+
+// Phát ra trong transaction mỗi khi sản phẩm được tạo/sửa/xóa hoặc thay đổi tồn kho. Nhật ký thay đổi
+// ghi ngay trong transaction, các listener khác xử lý sau commit.
+// product chỉ có với CREATED/UPDATED/PATCHED (PATCHED chỉ gồm các trường đã đổi + version mới), amount chỉ có với STOCK_CHANGED;
+// IMPORTED là một chunk import hàng loạt: không có productId mà có productIds của cả chunk
+public record ProductChangedEvent(Type type, String productId, ProductResponse product, Integer amount,
+                                  List<String> productIds) {
+
+    public enum Type {
+        CREATED, UPDATED, PATCHED, DELETED, STOCK_CHANGED, IMPORTED
+    }
+
+    public static ProductChangedEvent created(ProductResponse product) {
+        return new ProductChangedEvent(Type.CREATED, product.getId(), product, null, null);
+    }
+
+    public static ProductChangedEvent updated(ProductResponse product) {
+        return new ProductChangedEvent(Type.UPDATED, product.getId(), product, null, null);
+    }
+
+    public static ProductChangedEvent patched(ProductPatchResponse changes) {
+        ProductResponse product = ProductResponse.builder()
+                .id(changes.getId())
+                .productName(changes.getProductName())
+                .description(changes.getDescription())
+                .price(changes.getPrice())
+                .amount(changes.getAmount())
+                .updatedAt(changes.getUpdatedAt())
+                .version(changes.getVersion())
+                .build();
+        return new ProductChangedEvent(Type.PATCHED, changes.getId(), product, null, null);
+    }
+
+    public static ProductChangedEvent deleted(String productId) {
+        return new ProductChangedEvent(Type.DELETED, productId, null, null, null);
+    }
+
+    public static ProductChangedEvent stockChanged(String productId, int amount) {
+        return new ProductChangedEvent(Type.STOCK_CHANGED, productId, null, amount, null);
+    }
+
+    public static ProductChangedEvent imported(List<String> productIds) {
+        return new ProductChangedEvent(Type.IMPORTED, null, null, null, productIds);
+    }
+}
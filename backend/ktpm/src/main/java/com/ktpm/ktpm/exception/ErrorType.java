@@ -13,10 +13,17 @@ public enum ErrorType {
     UNAUTHORIZED("Chưa xác thực", 401, HttpStatus.UNAUTHORIZED),
     FORBIDDEN("Không có quyền truy cập", 403, HttpStatus.FORBIDDEN),
     INTERNAL_SERVER_ERROR("Lỗi hệ thống", 500, HttpStatus.INTERNAL_SERVER_ERROR),
+    TOO_MANY_REQUESTS("Hệ thống đang bận, vui lòng thử lại sau", 429, HttpStatus.TOO_MANY_REQUESTS),
+    SERVICE_UNAVAILABLE("Dịch vụ tạm thời không khả dụng", 503, HttpStatus.SERVICE_UNAVAILABLE),
+    PRECONDITION_REQUIRED("Thiếu header If-Match", 428, HttpStatus.PRECONDITION_REQUIRED),
     USER_NOT_FOUND("Người dùng không tồn tại", 1001, HttpStatus.NOT_FOUND),
     USERNAME_ALREADY_EXISTS("Username đã tồn tại", 1002, HttpStatus.BAD_REQUEST),
     ROLE_NOT_FOUND("Role không tồn tại", 1003, HttpStatus.NOT_FOUND),
-    INVALID_PASSWORD("Mật khẩu không hợp lệ", 1004, HttpStatus.BAD_REQUEST);
+    INVALID_PASSWORD("Mật khẩu không hợp lệ", 1004, HttpStatus.BAD_REQUEST),
+    OUT_OF_STOCK("Sản phẩm không đủ số lượng", 1005, HttpStatus.CONFLICT),
+    SYNC_EXPIRED("Mốc đồng bộ đã quá cũ, cần tải lại toàn bộ sản phẩm", 1006, HttpStatus.GONE),
+    VERSION_CONFLICT("Sản phẩm đã bị thay đổi, vui lòng tải lại trước khi sửa", 1007, HttpStatus.CONFLICT),
+    INVALID_CURSOR("Cursor phân trang không hợp lệ", 1008, HttpStatus.BAD_REQUEST);
 
     private final String message;
     private final int errorCode;
@@ -3,18 +3,32 @@ package com.ktpm.ktpm.mapper;
 import com.ktpm.ktpm.dto.request.UserCreationRequest;
 import com.ktpm.ktpm.dto.request.UserUpdateRequest;
 import com.ktpm.ktpm.dto.response.UserResponse;
+import com.ktpm.ktpm.entity.RoleEntity;
 import com.ktpm.ktpm.entity.UserEntity;
+import com.ktpm.ktpm.repository.projection.UserSummary;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 
+import java.util.Set;
+
 @Mapper(componentModel = "spring")
 public interface UserMapper {
+    @Mapping(target = "userName", source = "username")
     @Mapping(target = "roles", ignore = true)
     UserEntity toUserEntity(UserCreationRequest request);
 
+    @Mapping(target = "userName", source = "username")
     void updateUser(@MappingTarget UserEntity userEntity, UserUpdateRequest request);
 
-
+    @Mapping(target = "username", source = "userName")
     UserResponse toUserResponse(UserEntity userEntity);
+
+    // Dùng cho danh sách: map từ projection + roles đã query riêng, không cần entity được quản lý
+    @Mapping(target = "username", source = "summary.userName")
+    UserResponse toUserResponse(UserSummary summary, Set<String> roles);
+
+    default String toRoleName(RoleEntity roleEntity) {
+        return roleEntity.getRoleName();
+    }
 }
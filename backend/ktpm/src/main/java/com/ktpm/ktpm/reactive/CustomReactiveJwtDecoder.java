@@ -0,0 +1,89 @@
+package com.ktpm.ktpm.reactive;
+
+import com.ktpm.ktpm.configuration.VerifiedTokenCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtClaimValidator;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+
+// Tương đương CustomJWTDecoder: cache token đã xác thực, HS512 + exp bắt buộc, kiểm tra thu hồi, metric jwt.decode
+@Component
+@Profile(KtpmReactiveApplication.PROFILE)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CustomReactiveJwtDecoder implements ReactiveJwtDecoder {
+    NimbusReactiveJwtDecoder nimbusJwtDecoder;
+    VerifiedTokenCache verifiedTokenCache;
+    ReactiveTokenRevocations tokenRevocations;
+    MeterRegistry meterRegistry;
+    boolean stateless;
+
+    public CustomReactiveJwtDecoder(@Value("${jwt.key}") String signerKey,
+                                    @Value("${jwt.stateless}") boolean stateless,
+                                    VerifiedTokenCache verifiedTokenCache,
+                                    ReactiveTokenRevocations tokenRevocations,
+                                    MeterRegistry meterRegistry) {
+        this.nimbusJwtDecoder = NimbusReactiveJwtDecoder
+                .withSecretKey(new SecretKeySpec(signerKey.getBytes(), "HS512"))
+                .macAlgorithm(MacAlgorithm.HS512)
+                .build();
+
+        // Token bắt buộc có exp và hết hạn ngay tại exp (không cho phép lệch giờ)
+        this.nimbusJwtDecoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+                new JwtClaimValidator<Instant>(JwtClaimNames.EXP, Objects::nonNull),
+                new JwtTimestampValidator(Duration.ZERO)
+        ));
+
+        this.stateless = stateless;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.tokenRevocations = tokenRevocations;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        Jwt cached = verifiedTokenCache.get(token);
+        if (cached != null) {
+            sample.stop(decodeTimer("CACHED"));
+            return Mono.just(cached);
+        }
+
+        long stamp = verifiedTokenCache.stamp();
+
+        return nimbusJwtDecoder.decode(token)
+                .doOnError(e -> sample.stop(decodeTimer("INVALID")))
+                .flatMap(jwt -> {
+                    if (!stateless && tokenRevocations.isRevoked(jwt.getId())) {
+                        sample.stop(decodeTimer("REVOKED"));
+                        return Mono.error(new BadJwtException("Token has been revoked"));
+                    }
+
+                    verifiedTokenCache.put(token, jwt, stamp);
+                    sample.stop(decodeTimer("VERIFIED"));
+                    return Mono.just(jwt);
+                });
+    }
+
+    private Timer decodeTimer(String outcome) {
+        return meterRegistry.timer("jwt.decode", "outcome", outcome);
+    }
+}
@@ -0,0 +1,20 @@
+package com.ktpm.ktpm.reactive;
+
+import com.ktpm.ktpm.exception.GlobalException;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Profile;
+
+// Đường đọc sản phẩm reactive (WebFlux + R2DBC), chạy thành process riêng cạnh KtpmApplication.
+// Chỉ quét package reactive và exception; @Profile để component scan của KtpmApplication bỏ qua package này
+@SpringBootApplication(scanBasePackageClasses = {KtpmReactiveApplication.class, GlobalException.class})
+@Profile(KtpmReactiveApplication.PROFILE)
+public class KtpmReactiveApplication {
+    public static final String PROFILE = "reactive";
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(KtpmReactiveApplication.class)
+                .profiles(PROFILE)
+                .run(args);
+    }
+}
@@ -0,0 +1,56 @@
+package com.ktpm.ktpm.reactive;
+
+import com.ktpm.ktpm.dto.request.ProductPageRequest;
+import com.ktpm.ktpm.dto.response.ApiResponse;
+import com.ktpm.ktpm.dto.response.CursorPageResponse;
+import com.ktpm.ktpm.dto.response.ProductResponse;
+import com.ktpm.ktpm.service.ProductCatalogSnapshot;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// Các endpoint đọc sản phẩm, cùng đường dẫn và định dạng response với ProductController
+@RestController
+@RequestMapping("/product")
+@Profile(KtpmReactiveApplication.PROFILE)
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ReactiveProductController {
+    ReactiveProductService productService;
+
+    // WebFlux tự trả 304 khi ETag/Last-Modified khớp, giống ProductController
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ApiResponse<ProductResponse>>> getProductById(@PathVariable String id) {
+        return productService.getProductById(id).map(response -> {
+            LocalDateTime lastModified = response.getUpdatedAt() != null ? response.getUpdatedAt() : response.getCreatedAt();
+
+            return ResponseEntity.ok()
+                    .eTag("v" + response.getVersion())
+                    .lastModified(lastModified.atZone(ZoneId.systemDefault()))
+                    .body(new ApiResponse<>(response, "Get product successfully"));
+        });
+    }
+
+    @GetMapping
+    public Mono<ApiResponse<CursorPageResponse<ProductResponse>>> getAllProducts(ProductPageRequest request) {
+        return productService.getProducts(request)
+                .map(page -> new ApiResponse<>(page, ProductCatalogSnapshot.MESSAGE));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ProductResponse> exportProducts() {
+        return productService.exportProducts();
+    }
+}
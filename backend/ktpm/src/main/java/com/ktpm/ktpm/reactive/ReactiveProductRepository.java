@@ -0,0 +1,109 @@
+package com.ktpm.ktpm.reactive;
+
+import com.ktpm.ktpm.dto.response.ProductResponse;
+import com.ktpm.ktpm.exception.AppException;
+import com.ktpm.ktpm.exception.ErrorType;
+import com.ktpm.ktpm.util.Uuids;
+import io.r2dbc.spi.Readable;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Đọc bảng product qua R2DBC, cùng bảng mà JPA của app servlet ghi vào
+@Repository
+@Profile(KtpmReactiveApplication.PROFILE)
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ReactiveProductRepository {
+    static final String SELECT = "select id, product_name, description, price, amount, created_at, updated_at, version from product";
+
+    DatabaseClient databaseClient;
+
+    public Mono<ProductResponse> findById(String id) {
+        // id lưu BINARY(16) (xem ProductEntity), chuỗi không phải UUID thì chắc chắn không tồn tại
+        byte[] binaryId = Uuids.toBytes(id);
+        if (binaryId == null)
+            return Mono.empty();
+
+        return databaseClient.sql(SELECT + " where id = :id")
+                .bind("id", binaryId)
+                .map(ReactiveProductRepository::toResponse)
+                .one();
+    }
+
+    // Keyset giống ProductSpecifications: (created_at, id) > (afterCreatedAt, afterId)
+    public Flux<ProductResponse> findPage(LocalDateTime afterCreatedAt, String afterId,
+                                          BigDecimal minPrice, BigDecimal maxPrice, String namePrefix, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT).append(" where 1 = 1");
+        Map<String, Object> params = new LinkedHashMap<>();
+
+        if (afterCreatedAt != null) {
+            sql.append(" and (created_at > :createdAfter or (created_at = :createdAt and id > :afterId))");
+            params.put("createdAfter", afterCreatedAt);
+            params.put("createdAt", afterCreatedAt);
+            params.put("afterId", afterIdBytes(afterId));
+        }
+        if (minPrice != null) {
+            sql.append(" and price >= :minPrice");
+            params.put("minPrice", minPrice);
+        }
+        if (maxPrice != null) {
+            sql.append(" and price <= :maxPrice");
+            params.put("maxPrice", maxPrice);
+        }
+        if (namePrefix != null) {
+            // Dùng '!' làm ký tự escape để câu SQL giống nhau trên MySQL và H2
+            sql.append(" and product_name like :name escape '!'");
+            params.put("name", namePrefix
+                    .replace("!", "!!")
+                    .replace("%", "!%")
+                    .replace("_", "!_") + "%");
+        }
+        sql.append(" order by created_at, id limit :limit");
+        params.put("limit", limit);
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (Map.Entry<String, Object> param : params.entrySet())
+            spec = spec.bind(param.getKey(), param.getValue());
+
+        return spec.map(ReactiveProductRepository::toResponse).all();
+    }
+
+    // Driver chỉ đọc thêm dòng khi subscriber yêu cầu (backpressure)
+    public Flux<ProductResponse> findAll() {
+        return databaseClient.sql(SELECT + " order by created_at, id")
+                .map(ReactiveProductRepository::toResponse)
+                .all();
+    }
+
+    private static byte[] afterIdBytes(String afterId) {
+        byte[] bytes = Uuids.toBytes(afterId);
+        if (bytes == null)
+            throw new AppException(ErrorType.INVALID_CURSOR);
+        return bytes;
+    }
+
+    private static ProductResponse toResponse(Readable row) {
+        Long version = row.get("version", Long.class);
+        return ProductResponse.builder()
+                .id(Uuids.toString(row.get("id", byte[].class)))
+                .productName(row.get("product_name", String.class))
+                .description(row.get("description", String.class))
+                .price(row.get("price", BigDecimal.class))
+                .amount(row.get("amount", Integer.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .updatedAt(row.get("updated_at", LocalDateTime.class))
+                .version(version != null ? version : 0)
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.ktpm.ktpm.reactive;
+
+import com.ktpm.ktpm.dto.request.ProductPageRequest;
+import com.ktpm.ktpm.dto.response.CursorPageResponse;
+import com.ktpm.ktpm.dto.response.ProductResponse;
+import com.ktpm.ktpm.exception.AppException;
+import com.ktpm.ktpm.exception.ErrorType;
+import com.ktpm.ktpm.util.CursorCodec;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+// Cùng logic đọc với ProductService nhưng không chặn thread: kết quả trả về dạng Mono/Flux
+@Service
+@Profile(KtpmReactiveApplication.PROFILE)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ReactiveProductService {
+    ReactiveProductRepository productRepository;
+    int defaultPageSize;
+    int maxPageSize;
+    int exportPrefetch;
+
+    public ReactiveProductService(ReactiveProductRepository productRepository,
+                                  @Value("${product.page.default-size}") int defaultPageSize,
+                                  @Value("${product.page.max-size}") int maxPageSize,
+                                  @Value("${product.reactive.export-prefetch}") int exportPrefetch) {
+        this.productRepository = productRepository;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.exportPrefetch = exportPrefetch;
+    }
+
+    public Mono<ProductResponse> getProductById(String id) {
+        return productRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new AppException(ErrorType.NOT_FOUND)));
+    }
+
+    public Mono<CursorPageResponse<ProductResponse>> getProducts(ProductPageRequest request) {
+        return Mono.defer(() -> {
+            int size = request.getSize() == null
+                    ? defaultPageSize
+                    : Math.min(Math.max(request.getSize(), 1), maxPageSize);
+
+            LocalDateTime afterCreatedAt = null;
+            String afterId = null;
+            if (request.getCursor() != null && !request.getCursor().isBlank()) {
+                String[] cursor = CursorCodec.decode(request.getCursor(), 2);
+                try {
+                    afterCreatedAt = LocalDateTime.parse(cursor[0]);
+                } catch (DateTimeParseException e) {
+                    throw new AppException(ErrorType.INVALID_CURSOR);
+                }
+                afterId = CursorCodec.requireUuid(cursor[1]);
+            }
+            String name = request.getName() != null && !request.getName().isBlank() ? request.getName() : null;
+
+            // Lấy dư 1 dòng để biết còn trang sau hay không
+            return productRepository.findPage(afterCreatedAt, afterId,
+                            request.getMinPrice(), request.getMaxPrice(), name, size + 1)
+                    .collectList()
+                    .map(products -> toPage(products, size));
+        });
+    }
+
+    // Đọc theo nhu cầu của client: client nhận chậm thì R2DBC cũng dừng đọc, bộ nhớ không tăng theo số dòng
+    public Flux<ProductResponse> exportProducts() {
+        return productRepository.findAll().limitRate(exportPrefetch);
+    }
+
+    private static CursorPageResponse<ProductResponse> toPage(List<ProductResponse> products, int size) {
+        boolean hasNext = products.size() > size;
+        if (hasNext)
+            products = products.subList(0, size);
+
+        String nextCursor = null;
+        if (hasNext) {
+            ProductResponse last = products.get(products.size() - 1);
+            nextCursor = CursorCodec.encode(last.getCreatedAt().toString(), last.getId());
+        }
+
+        return CursorPageResponse.<ProductResponse>builder()
+                .items(products)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.ktpm.ktpm.reactive;
+
+import com.ktpm.ktpm.configuration.VerifiedTokenCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+
+// Cùng quy tắc phân quyền với SecurityConfig cho các endpoint đọc sản phẩm
+@Configuration
+@EnableWebFluxSecurity
+@Profile(KtpmReactiveApplication.PROFILE)
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, CustomReactiveJwtDecoder jwtDecoder) {
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .authorizeExchange(exchange -> exchange
+                        .pathMatchers(HttpMethod.GET, "/product").permitAll()
+                        .pathMatchers(HttpMethod.GET, "/actuator/health").permitAll()
+                        // Như SecurityConfig: metrics chỉ dành cho admin (Prometheus scrape kèm bearer token)
+                        .pathMatchers("/actuator/**").hasAuthority("ROLE_ADMIN")
+                        .anyExchange().authenticated()
+                )
+                .oauth2ResourceServer(oauth2 -> oauth2
+                        .jwt(jwt -> jwt
+                                .jwtDecoder(jwtDecoder)
+                                .jwtAuthenticationConverter(jwtAuthenticationConverter())
+                        )
+                )
+                .build();
+    }
+
+    @Bean
+    public VerifiedTokenCache verifiedTokenCache(@Value("${jwt.cache.maximum-size}") long maximumSize,
+                                                 MeterRegistry meterRegistry) {
+        return new VerifiedTokenCache(maximumSize, meterRegistry);
+    }
+
+    private static ReactiveJwtAuthenticationConverterAdapter jwtAuthenticationConverter() {
+        JwtGrantedAuthoritiesConverter grantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
+        grantedAuthoritiesConverter.setAuthorityPrefix(""); // bỏ ROLE_ nếu đã có trong claim
+
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(grantedAuthoritiesConverter);
+        return new ReactiveJwtAuthenticationConverterAdapter(converter);
+    }
+}
@@ -0,0 +1,93 @@
+package com.ktpm.ktpm.reactive;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+
+// Danh sách token đã thu hồi cho app reactive. Logout đi qua app servlet (TokenRevocationService),
+// ở đây chỉ nạp lại định kỳ bảng invalidated_token, kiểm tra mỗi request chỉ là tra Map trong bộ nhớ
+@Component
+@Profile(KtpmReactiveApplication.PROFILE)
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ReactiveTokenRevocations {
+    DatabaseClient databaseClient;
+    Duration reloadInterval;
+    boolean stateless;
+
+    // jwtId -> thời điểm hết hạn (epoch millis), thay nguyên Map sau mỗi lần nạp
+    @NonFinal
+    volatile Map<String, Long> revoked = Map.of();
+
+    @NonFinal
+    Disposable reloading;
+
+    public ReactiveTokenRevocations(DatabaseClient databaseClient,
+                                    @Value("${jwt.revocation.reload-interval}") Duration reloadInterval,
+                                    @Value("${jwt.stateless}") boolean stateless) {
+        this.databaseClient = databaseClient;
+        this.reloadInterval = reloadInterval;
+        this.stateless = stateless;
+    }
+
+    @PostConstruct
+    void start() {
+        // Chế độ stateless không kiểm tra thu hồi
+        if (stateless)
+            return;
+
+        // Nạp lần đầu trước khi nhận request, để token đã logout không lọt qua lúc khởi động
+        load().block(Duration.ofSeconds(30));
+        log.info("Loaded {} revoked tokens", revoked.size());
+
+        reloading = Flux.interval(reloadInterval, reloadInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> load()
+                        .onErrorResume(e -> {
+                            log.warn("Cannot reload revoked tokens: {}", e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (reloading != null)
+            reloading.dispose();
+    }
+
+    public boolean isRevoked(String jwtId) {
+        // Token không có jti thì không thể thu hồi được -> coi như không hợp lệ
+        if (jwtId == null)
+            return true;
+
+        Long expiresAt = revoked.get(jwtId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    private Mono<Void> load() {
+        return databaseClient.sql("select id, expiry_time from invalidated_token where expiry_time > :now")
+                .bind("now", LocalDateTime.now())
+                .map(row -> Map.entry(row.get("id", String.class),
+                        row.get("expiry_time", LocalDateTime.class).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .doOnNext(tokens -> revoked = Map.copyOf(tokens))
+                .then();
+    }
+}
@@ -0,0 +1,7 @@
+package com.ktpm.ktpm.repository;
+
+import com.ktpm.ktpm.entity.ChangeLogHorizon;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ChangeLogHorizonRepository extends JpaRepository<ChangeLogHorizon, String> {
+}
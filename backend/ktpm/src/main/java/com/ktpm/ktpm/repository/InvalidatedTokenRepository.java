@@ -1,7 +1,16 @@
 package com.ktpm.ktpm.repository;
 
 import com.ktpm.ktpm.entity.InvalidatedToken;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Date;
+import java.util.List;
 
 public interface InvalidatedTokenRepository extends JpaRepository<InvalidatedToken, String> {
+    List<InvalidatedToken> findByExpiryTimeAfter(Date time);
+
+    @Query("select t.id from InvalidatedToken t where t.expiryTime <= :time")
+    List<String> findExpiredIds(Date time, Pageable pageable);
 }
@@ -0,0 +1,26 @@
+package com.ktpm.ktpm.repository;
+
+import com.ktpm.ktpm.entity.ProductChangeEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface ProductChangeRepository extends JpaRepository<ProductChangeEntity, Long> {
+
+    // Chỉ trả các thay đổi đã "lắng" (cũ hơn settle window), xem ProductChangeLog.
+    // So với giờ của DB (changed_at cũng do DB ghi) để lệch đồng hồ giữa các instance không làm lọt thay đổi chưa commit
+    @Query("select c from ProductChangeEntity c where c.seq > :since " +
+            "and c.changedAt <= local datetime - :settleSeconds second order by c.seq")
+    List<ProductChangeEntity> findChangesAfter(long since, long settleSeconds, Pageable pageable);
+
+    // Bản ghi đã có bản mới hơn cho cùng sản phẩm
+    @Query("select c.seq from ProductChangeEntity c where c.seq < " +
+            "(select max(c2.seq) from ProductChangeEntity c2 where c2.productId = c.productId)")
+    List<Long> findSupersededSeqs(Pageable pageable);
+
+    @Query("select c.seq from ProductChangeEntity c where c.changeType = com.ktpm.ktpm.entity.ProductChangeEntity.ChangeType.DELETE " +
+            "and c.changedAt < local datetime - :retentionSeconds second order by c.seq")
+    List<Long> findTombstoneSeqsOlderThan(long retentionSeconds, Pageable pageable);
+}
@@ -1,9 +1,44 @@
 package com.ktpm.ktpm.repository;
 
 import com.ktpm.ktpm.entity.ProductEntity;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
-public interface ProductRepository extends JpaRepository<ProductEntity, String> {
+public interface ProductRepository extends JpaRepository<ProductEntity, String>, JpaSpecificationExecutor<ProductEntity> {
+
+    // Đọc tuần tự theo từng lô fetch size (MySQL cần useCursorFetch=true), phải dùng trong transaction.
+    // Export đọc cả bảng một lần: không đọc/ghi second-level cache
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("select p from ProductEntity p")
+    Stream<ProductEntity> streamAll();
+
+    // Chỉ trừ khi còn đủ hàng, trả về 0 nếu không đủ hoặc không tồn tại
+    @Modifying
+    @Query("update versioned ProductEntity p set p.amount = p.amount - :quantity, p.updatedAt = local datetime " +
+            "where p.id = :id and p.amount >= :quantity")
+    int decreaseAmount(String id, int quantity);
+
+    @Modifying
+    @Query("update versioned ProductEntity p set p.amount = coalesce(p.amount, 0) + :quantity, p.updatedAt = local datetime " +
+            "where p.id = :id")
+    int increaseAmount(String id, int quantity);
+
+    @Query("select p.amount from ProductEntity p where p.id = :id")
+    Integer findAmountById(String id);
 }
@@ -0,0 +1,40 @@
+package com.ktpm.ktpm.repository;
+
+import com.ktpm.ktpm.entity.ProductEntity;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    // Keyset: (created_at, id) > (createdAt, id)
+    public static Specification<ProductEntity> after(LocalDateTime createdAt, String id) {
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("createdAt"), createdAt),
+                cb.and(
+                        cb.equal(root.get("createdAt"), createdAt),
+                        cb.greaterThan(root.get("id"), id)
+                )
+        );
+    }
+
+    public static Specification<ProductEntity> priceAtLeast(BigDecimal minPrice) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<ProductEntity> priceAtMost(BigDecimal maxPrice) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+
+    public static Specification<ProductEntity> nameStartsWith(String prefix) {
+        String pattern = prefix
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(root.get("productName"), pattern, '\\');
+    }
+}
@@ -0,0 +1,31 @@
+package com.ktpm.ktpm.repository;
+
+import com.ktpm.ktpm.entity.RefreshToken;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Date;
+import java.util.List;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+    // Đánh dấu đã dùng một cách nguyên tử: hai request đổi cùng một token thì chỉ một request thành công
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            update RefreshToken t set t.usedAt = :now
+            where t.tokenHash = :tokenHash and t.usedAt is null and t.revoked = false and t.expiryTime > :now
+            """)
+    int markUsed(String tokenHash, Date now);
+
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true where t.familyId = :familyId")
+    int revokeFamily(String familyId);
+
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true where t.userId = :userId")
+    int revokeByUserId(String userId);
+
+    @Query("select t.tokenHash from RefreshToken t where t.expiryTime <= :time")
+    List<String> findExpiredIds(Date time, Pageable pageable);
+}
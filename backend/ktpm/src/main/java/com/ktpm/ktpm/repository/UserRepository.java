@@ -1,14 +1,42 @@
 package com.ktpm.ktpm.repository;
 
 import com.ktpm.ktpm.entity.UserEntity;
+import com.ktpm.ktpm.repository.projection.UserRoleName;
+import com.ktpm.ktpm.repository.projection.UserSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<UserEntity, String> {
+    // Query cache chỉ lưu id; mọi lần ghi vào bảng users làm các kết quả đã lưu hết hiệu lực
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<UserEntity> findByUserName(String name);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<UserEntity> findByEmail(String email);
+
     boolean existsByUserName(String s);
+
+    // Phân trang keyset theo id (khóa chính), chỉ dùng Pageable để giới hạn số dòng
+    @Query("select new com.ktpm.ktpm.repository.projection.UserSummary(u.id, u.userName, u.email) " +
+            "from UserEntity u order by u.id")
+    List<UserSummary> findSummaries(Pageable pageable);
+
+    @Query("select new com.ktpm.ktpm.repository.projection.UserSummary(u.id, u.userName, u.email) " +
+            "from UserEntity u where u.id > :afterId order by u.id")
+    List<UserSummary> findSummariesAfter(String afterId, Pageable pageable);
+
+    // Roles của cả trang trong một câu query
+    @Query("select new com.ktpm.ktpm.repository.projection.UserRoleName(u.id, r.roleName) " +
+            "from UserEntity u join u.roles r where u.id in :userIds")
+    List<UserRoleName> findRoleNames(Collection<String> userIds);
 }
@@ -0,0 +1,4 @@
+package com.ktpm.ktpm.repository.projection;
+
+public record UserRoleName(String userId, String roleName) {
+}
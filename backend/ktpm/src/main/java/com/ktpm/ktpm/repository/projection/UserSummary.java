@@ -0,0 +1,5 @@
+package com.ktpm.ktpm.repository.projection;
+
+// Các cột của users cần cho danh sách, không load entity (và không kéo theo roles)
+public record UserSummary(String id, String userName, String email) {
+}
@@ -1,15 +1,15 @@
 package com.ktpm.ktpm.service;
 
+import com.ktpm.ktpm.configuration.VerifiedTokenCache;
 import com.ktpm.ktpm.dto.request.AuthRequest;
 import com.ktpm.ktpm.dto.request.IntrospectRequest;
 import com.ktpm.ktpm.dto.request.LogoutRequest;
+import com.ktpm.ktpm.dto.request.RefreshRequest;
 import com.ktpm.ktpm.dto.response.AuthResponse;
 import com.ktpm.ktpm.dto.response.IntrospectResponse;
-import com.ktpm.ktpm.entity.InvalidatedToken;
 import com.ktpm.ktpm.entity.UserEntity;
 import com.ktpm.ktpm.exception.AppException;
 import com.ktpm.ktpm.exception.ErrorType;
-import com.ktpm.ktpm.repository.InvalidatedTokenRepository;
 import com.ktpm.ktpm.repository.UserRepository;
 import com.nimbusds.jose.*;
 import com.nimbusds.jose.crypto.MACSigner;
@@ -22,7 +22,6 @@ import lombok.experimental.FieldDefaults;
 import lombok.experimental.NonFinal;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -30,7 +29,6 @@ import java.text.ParseException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
-import java.util.StringJoiner;
 import java.util.UUID;
 
 import static java.rmi.server.LogStream.log;
@@ -41,8 +39,11 @@ import static java.rmi.server.LogStream.log;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class AuthService {
     UserRepository userRepository;
-    InvalidatedTokenRepository invalidatedTokenRepository;
-    PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(12);
+    TokenRevocationService tokenRevocationService;
+    RefreshTokenService refreshTokenService;
+    RoleCatalog roleCatalog;
+    VerifiedTokenCache verifiedTokenCache;
+    PasswordEncoder passwordEncoder;
 
     @Value("${jwt.key}")
     @NonFinal
@@ -52,6 +53,15 @@ public class AuthService {
     @NonFinal
     protected long EXPIRATION_TIME;
 
+    // stateless: access token ngắn hạn chỉ kiểm tra chữ ký + exp, việc thu hồi chuyển sang refresh token
+    @Value("${jwt.stateless}")
+    @NonFinal
+    protected boolean STATELESS;
+
+    @Value("${jwt.access-expiration-time}")
+    @NonFinal
+    protected long ACCESS_EXPIRATION_TIME;
+
     public AuthResponse authenticate(AuthRequest request) {
         UserEntity user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new AppException(ErrorType.UNAUTHORIZED));
@@ -63,11 +73,26 @@ public class AuthService {
 
         AuthResponse respond = AuthResponse.builder()
                 .token(token)
+                .refreshToken(refreshTokenService.issue(user.getId()))
                 .authenticated(true)
                 .build();
         return respond;
     }
 
+    // Đổi refresh token cũ lấy cặp access token + refresh token mới
+    public AuthResponse refresh(RefreshRequest request) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+
+        UserEntity user = userRepository.findById(rotation.userId())
+                .orElseThrow(() -> new AppException(ErrorType.UNAUTHORIZED));
+
+        return AuthResponse.builder()
+                .token(generateToken(user))
+                .refreshToken(rotation.refreshToken())
+                .authenticated(true)
+                .build();
+    }
+
     public IntrospectResponse introspect(IntrospectRequest request) throws JOSEException, ParseException {
         String token = request.getToken();
 
@@ -84,33 +109,43 @@ public class AuthService {
     }
 
     public void logout(LogoutRequest request) throws ParseException, JOSEException {
+        refreshTokenService.revoke(request.getRefreshToken());
+
+        // Ở chế độ stateless không ai kiểm tra danh sách thu hồi, access token tự hết hạn
+        if (STATELESS || request.getToken() == null)
+            return;
+
         try {
             String token = request.getToken();
 
             SignedJWT signedJWT = verifyToken(token);
             JWTClaimsSet jwtClaimsSet = signedJWT.getJWTClaimsSet();
 
-            InvalidatedToken invalidatedToken = InvalidatedToken.builder()
-                    .id(jwtClaimsSet.getJWTID())
-                    .expiryTime(jwtClaimsSet.getExpirationTime())
-                    .build();
-
-            invalidatedTokenRepository.save(invalidatedToken);
+            tokenRevocationService.revoke(jwtClaimsSet.getJWTID(), jwtClaimsSet.getExpirationTime());
+            verifiedTokenCache.invalidate(token);
         } catch (Exception e) {
             log(e.getMessage());
         }
     }
 
-    private String generateToken(UserEntity user) {
+    public boolean isRevoked(String jwtId) {
+        return tokenRevocationService.isRevoked(jwtId);
+    }
+
+    public boolean isStateless() {
+        return STATELESS;
+    }
+
+    String generateToken(UserEntity user) {
         JWSHeader header = new JWSHeader(JWSAlgorithm.HS512);
         JWTClaimsSet claimSet = new JWTClaimsSet.Builder()
                 .subject(user.getUserName())
-                .claim("scope", buildScope(user))
+                .claim("scope", roleCatalog.scopeOf(user))
                 .jwtID(UUID.randomUUID().toString())
                 .issuer("domainname")
                 .issueTime(new Date())
                 .expirationTime(new Date(
-                        Instant.now().plus(EXPIRATION_TIME, ChronoUnit.SECONDS).toEpochMilli()
+                        Instant.now().plus(STATELESS ? ACCESS_EXPIRATION_TIME : EXPIRATION_TIME, ChronoUnit.SECONDS).toEpochMilli()
                 ))
                 .build();
         Payload payload = new Payload(claimSet.toJSONObject());
@@ -126,17 +161,7 @@ public class AuthService {
         }
     }
 
-    private String buildScope(UserEntity user) {
-        StringJoiner stringJoiner = new StringJoiner(" ");
-
-        user.getRoles().forEach(role -> {
-            stringJoiner.add("ROLE_" + role.getRoleName());
-        });
-
-        return stringJoiner.toString();
-    }
-
-    private SignedJWT verifyToken(String token) throws ParseException, JOSEException {
+    SignedJWT verifyToken(String token) throws ParseException, JOSEException {
         JWSVerifier verifier = new MACVerifier(SIGNER_KEY);
         SignedJWT signedJWT = SignedJWT.parse(token);
 
@@ -146,7 +171,7 @@ public class AuthService {
         if (!(verified && expirationTime.after(new Date())))
             throw new AppException(ErrorType.UNAUTHORIZED);
 
-        if (invalidatedTokenRepository.existsById(signedJWT.getJWTClaimsSet().getJWTID()))
+        if (!STATELESS && isRevoked(signedJWT.getJWTClaimsSet().getJWTID()))
             throw new AppException(ErrorType.UNAUTHORIZED);
 
         return signedJWT;
@@ -0,0 +1,70 @@
+package com.ktpm.ktpm.service;
+
+import com.ktpm.ktpm.configuration.CacheConfig;
+import com.ktpm.ktpm.dto.request.InventoryRequest;
+import com.ktpm.ktpm.dto.response.InventoryResponse;
+import com.ktpm.ktpm.event.ProductChangedEvent;
+import com.ktpm.ktpm.exception.AppException;
+import com.ktpm.ktpm.exception.ErrorType;
+import com.ktpm.ktpm.repository.ProductRepository;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+// Giữ/trả hàng bằng một câu UPDATE có điều kiện: DB khóa dòng và kiểm tra tồn kho trong cùng một thao tác,
+// nên các request đồng thời không ghi đè nhau và không bao giờ bán quá số lượng
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class InventoryService {
+    ProductRepository productRepository;
+    ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id")
+    public InventoryResponse reserve(String id, InventoryRequest request) {
+        int quantity = quantityOf(request);
+
+        if (productRepository.decreaseAmount(id, quantity) == 0) {
+            if (!productRepository.existsById(id))
+                throw new AppException(ErrorType.NOT_FOUND);
+            throw new AppException(ErrorType.OUT_OF_STOCK);
+        }
+
+        return stockChanged(id);
+    }
+
+    @Transactional
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id")
+    public InventoryResponse release(String id, InventoryRequest request) {
+        int quantity = quantityOf(request);
+
+        if (productRepository.increaseAmount(id, quantity) == 0)
+            throw new AppException(ErrorType.NOT_FOUND);
+
+        return stockChanged(id);
+    }
+
+    // Dòng vẫn đang bị khóa bởi câu UPDATE ở trên nên số lượng đọc được là chính xác
+    private InventoryResponse stockChanged(String id) {
+        int amount = productRepository.findAmountById(id);
+        eventPublisher.publishEvent(ProductChangedEvent.stockChanged(id, amount));
+
+        return InventoryResponse.builder()
+                .productId(id)
+                .amount(amount)
+                .build();
+    }
+
+    private int quantityOf(InventoryRequest request) {
+        if (request == null || request.getQuantity() == null || request.getQuantity() < 1)
+            throw new AppException(ErrorType.BAD_REQUEST);
+        return request.getQuantity();
+    }
+}
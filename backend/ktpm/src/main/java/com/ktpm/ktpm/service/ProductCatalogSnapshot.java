@@ -0,0 +1,211 @@
+package com.ktpm.ktpm.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktpm.ktpm.configuration.ReplicaRouting;
+import com.ktpm.ktpm.dto.request.ProductPageRequest;
+import com.ktpm.ktpm.dto.response.ApiResponse;
+import com.ktpm.ktpm.dto.response.CursorPageResponse;
+import com.ktpm.ktpm.dto.response.ProductResponse;
+import com.ktpm.ktpm.event.ProductChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+// Trang đầu của GET /product (không cursor, không lọc, size mặc định) được serialize và nén gzip sẵn,
+// request chỉ còn copy mảng byte ra response. Dựng lại (có debounce) sau khi sản phẩm thay đổi;
+// snapshot chỉ được dùng khi trùng version hiện tại của danh mục, nếu không request đi đường bình thường
+@Component
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProductCatalogSnapshot {
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    public static final String MESSAGE = "Get all products successfully";
+
+    ProductService productService;
+    ProductCatalogVersion productCatalogVersion;
+    ObjectMapper objectMapper;
+    TaskScheduler taskScheduler;
+    Duration debounce;
+    int defaultPageSize;
+    AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    Counter hits;
+    Counter misses;
+
+    @NonFinal
+    volatile Entry current;
+
+    public ProductCatalogSnapshot(ProductService productService,
+                                  ProductCatalogVersion productCatalogVersion,
+                                  ObjectMapper objectMapper,
+                                  TaskScheduler taskScheduler,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${product.snapshot.debounce}") Duration debounce,
+                                  @Value("${product.page.default-size}") int defaultPageSize) {
+        this.productService = productService;
+        this.productCatalogVersion = productCatalogVersion;
+        this.objectMapper = objectMapper;
+        this.taskScheduler = taskScheduler;
+        this.debounce = debounce;
+        this.defaultPageSize = defaultPageSize;
+        this.hits = meterRegistry.counter("product.snapshot.requests", "result", "hit");
+        this.misses = meterRegistry.counter("product.snapshot.requests", "result", "miss");
+    }
+
+    // Snapshot còn mới (cùng version danh mục) và request đúng là trang mặc định, ngược lại trả null
+    public Entry current(ProductPageRequest request, ProductCatalogVersion.Snapshot version) {
+        if (!isDefaultPage(request))
+            return null;
+
+        Entry entry = current;
+        if (entry == null || entry.version() != version.version()) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry;
+    }
+
+    public void write(Entry entry, boolean gzip, HttpServletResponse response) throws IOException {
+        byte[] body = gzip ? entry.gzip() : entry.json();
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (gzip)
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        scheduleRebuild();
+    }
+
+    private void scheduleRebuild() {
+        // Gom các lần ghi liên tiếp trong khoảng debounce thành một lần dựng lại
+        if (rebuildScheduled.compareAndSet(false, true))
+            taskScheduler.schedule(() -> {
+                rebuildScheduled.set(false);
+                rebuild();
+            }, Instant.now().plus(debounce));
+    }
+
+    void rebuild() {
+        // Lấy version trước khi đọc DB, giống ETag của GET /product
+        ProductCatalogVersion.Snapshot version = productCatalogVersion.current();
+        try {
+            // Dựng ngay sau khi ghi nên không đọc từ replica có thể còn trễ
+            CursorPageResponse<ProductResponse> page = ReplicaRouting.onPrimary(
+                    () -> productService.getProducts(new ProductPageRequest()));
+            byte[] json = objectMapper.writeValueAsBytes(new ApiResponse<>(page, MESSAGE));
+            current = new Entry(version.version(), json, gzip(json));
+        } catch (RuntimeException | IOException e) {
+            log.warn("Cannot build product catalog snapshot: {}", e.getMessage());
+        }
+
+        // Có ghi xen giữa lúc đang dựng (hoặc listener tăng version chạy sau) -> dựng lại lần nữa
+        if (productCatalogVersion.current().version() != version.version())
+            scheduleRebuild();
+    }
+
+    private boolean isDefaultPage(ProductPageRequest request) {
+        return (request.getCursor() == null || request.getCursor().isBlank())
+                && (request.getSize() == null || request.getSize() == defaultPageSize)
+                && request.getMinPrice() == null
+                && request.getMaxPrice() == null
+                && (request.getName() == null || request.getName().isBlank());
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    // Client chấp nhận gzip nếu Accept-Encoding có gzip (hoặc *) với q > 0
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return false;
+
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*"))
+                continue;
+
+            double quality = 1;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (quality > 0)
+                return true;
+        }
+        return false;
+    }
+
+    // Snapshot là JSON: chỉ dùng khi content negotiation sẽ chọn JSON chứ không phải Smile/CBOR
+    public static boolean acceptsJson(String accept) {
+        if (accept == null || accept.isBlank())
+            return true;
+
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            // Để đường xử lý thông thường trả lỗi
+            return false;
+        }
+
+        // Sắp theo q rồi theo độ cụ thể, giống cách Spring MVC chọn converter
+        MimeTypeUtils.sortBySpecificity(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.getQualityValue() == 0)
+                continue;
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON))
+                return true;
+            if (mediaType.isCompatibleWith(SMILE) || mediaType.isCompatibleWith(MediaType.APPLICATION_CBOR))
+                return false;
+        }
+        return false;
+    }
+
+    public record Entry(long version, byte[] json, byte[] gzip) {
+    }
+}
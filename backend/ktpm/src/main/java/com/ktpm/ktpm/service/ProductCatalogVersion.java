@@ -0,0 +1,41 @@
+package com.ktpm.ktpm.service;
+
+import com.ktpm.ktpm.event.ProductChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Phiên bản của toàn bộ danh mục sản phẩm, tăng sau mỗi lần ghi đã commit.
+// Dùng làm ETag cho GET /product để trả 304 mà không cần đọc DB.
+// Chỉ đúng khi chạy một instance (giống cache sản phẩm): ghi ở instance khác không làm tăng version ở đây
+@Component
+public class ProductCatalogVersion {
+    // Gắn thời điểm khởi động vào ETag để version sau khi restart không trùng với ETag cũ client còn giữ
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(new Snapshot(0, Instant.now()));
+
+    public Snapshot current() {
+        return current.get();
+    }
+
+    public String etag(Snapshot snapshot) {
+        return etag(snapshot, false);
+    }
+
+    // Bản gzip là một representation khác nên cần ETag riêng
+    public String etag(Snapshot snapshot, boolean gzip) {
+        return "\"" + bootId + "-" + snapshot.version() + (gzip ? "-gzip" : "") + "\"";
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Instant now = Instant.now();
+        current.updateAndGet(snapshot -> new Snapshot(snapshot.version() + 1, now));
+    }
+
+    public record Snapshot(long version, Instant lastModified) {
+    }
+}
@@ -0,0 +1,220 @@
+package com.ktpm.ktpm.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktpm.ktpm.dto.response.ProductChangeResponse;
+import com.ktpm.ktpm.event.ProductChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Đẩy thay đổi sản phẩm (sau commit) tới client qua SSE.
+// - Mỗi event được serialize một lần, giữ trong vòng đệm (ring) các event gần nhất để client nối lại bằng Last-Event-ID
+// - Mỗi client có hàng đợi giới hạn, đầy thì ngắt kết nối (client chậm) thay vì giữ bộ nhớ hoặc chặn người ghi
+// - Client rảnh không giữ thread nào (async servlet), chỉ khi có dữ liệu mới gửi trên virtual thread
+@Service
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProductChangeFeed {
+    static final String CHANGE_EVENT = "product";
+    // Client cần tải lại danh sách: Last-Event-ID quá cũ, của lần chạy trước, hoặc bỏ lỡ event
+    static final String RESET_EVENT = "reset";
+
+    ObjectMapper objectMapper;
+    long timeoutMillis;
+    int bufferSize;
+    // Gắn thời điểm khởi động vào id để Last-Event-ID từ lần chạy trước không bị hiểu nhầm
+    String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+    Object lock = new Object();
+    Entry[] ring;
+    Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    Counter slowConsumerDisconnects;
+
+    @NonFinal
+    long nextSeq = 1; // chỉ đọc/ghi trong synchronized (lock)
+
+    public ProductChangeFeed(ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${product.feed.ring-size}") int ringSize,
+                             @Value("${product.feed.subscriber-buffer}") int bufferSize,
+                             @Value("${product.feed.timeout}") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.ring = new Entry[ringSize];
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.slowConsumerDisconnects = meterRegistry.counter("product.feed.disconnected", "reason", "slow_consumer");
+        meterRegistry.gauge("product.feed.subscribers", subscribers, Set::size);
+    }
+
+    public SseEmitter subscribe(String lastEventId) {
+        return subscribe(lastEventId, new SseEmitter(timeoutMillis));
+    }
+
+    // Nhận emitter từ ngoài để test ghi lại được các event đã gửi
+    SseEmitter subscribe(String lastEventId, SseEmitter emitter) {
+        // LinkedBlockingQueue chỉ cấp phát khi có phần tử -> client rảnh tốn rất ít bộ nhớ
+        Subscriber subscriber = new Subscriber(emitter, new LinkedBlockingQueue<>(bufferSize), new AtomicBoolean());
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        // Replay và đăng ký trong cùng lock với publish -> không mất và không trùng event
+        synchronized (lock) {
+            List<Entry> replay = replayAfter(lastEventId);
+            if (replay == null || replay.size() > bufferSize)
+                subscriber.queue().offer(new Entry(null, RESET_EVENT, "{}"));
+            else
+                replay.forEach(subscriber.queue()::offer);
+            subscribers.add(subscriber);
+        }
+
+        drain(subscriber);
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(ProductChangeResponse.builder()
+                    .type(event.type().name())
+                    .productId(event.productId())
+                    .product(event.product())
+                    .amount(event.amount())
+                    .productIds(event.productIds())
+                    .build());
+        } catch (JsonProcessingException e) {
+            log.warn("Cannot serialize product change: {}", e.getMessage());
+            return;
+        }
+
+        List<Subscriber> slow = new ArrayList<>();
+        synchronized (lock) {
+            long seq = nextSeq++;
+            Entry entry = new Entry(bootId + "-" + seq, CHANGE_EVENT, data);
+            ring[(int) (seq % ring.length)] = entry;
+
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.queue().offer(entry))
+                    slow.add(subscriber);
+            }
+        }
+
+        slow.forEach(this::disconnectSlow);
+        subscribers.forEach(this::drain);
+    }
+
+    // Comment định kỳ để proxy không cắt kết nối rảnh và để phát hiện client đã đi mất
+    @Scheduled(fixedDelayString = "${product.feed.heartbeat-interval}")
+    public void heartbeat() {
+        Entry heartbeat = new Entry(null, null, null);
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queue().offer(heartbeat))
+                drain(subscriber);
+            else
+                disconnectSlow(subscriber);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter().complete());
+        senders.shutdown();
+    }
+
+    // null nếu không thể nối tiếp từ lastEventId (client phải tải lại)
+    private List<Entry> replayAfter(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank())
+            return List.of();
+
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !lastEventId.substring(0, separator).equals(bootId))
+            return null;
+
+        long lastSeq;
+        try {
+            lastSeq = Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        long oldestSeq = Math.max(1, nextSeq - ring.length);
+        if (lastSeq < oldestSeq - 1 || lastSeq >= nextSeq)
+            return null;
+
+        List<Entry> replay = new ArrayList<>((int) (nextSeq - lastSeq - 1));
+        for (long seq = lastSeq + 1; seq < nextSeq; seq++)
+            replay.add(ring[(int) (seq % ring.length)]);
+        return replay;
+    }
+
+    private void disconnectSlow(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            slowConsumerDisconnects.increment();
+            subscriber.emitter().complete();
+        }
+    }
+
+    // Mỗi client tối đa một task gửi tại một thời điểm, gửi trên virtual thread nên ghi chậm không chặn ai
+    private void drain(Subscriber subscriber) {
+        if (subscriber.queue().isEmpty() || !subscriber.draining().compareAndSet(false, true))
+            return;
+
+        senders.execute(() -> {
+            try {
+                Entry entry;
+                while ((entry = subscriber.queue().poll()) != null)
+                    subscriber.emitter().send(entry.toEvent());
+            } catch (IOException | IllegalStateException e) {
+                // Client đã đóng kết nối
+                subscribers.remove(subscriber);
+                subscriber.queue().clear();
+            } finally {
+                subscriber.draining().set(false);
+            }
+
+            if (subscribers.contains(subscriber))
+                drain(subscriber);
+        });
+    }
+
+    private record Subscriber(SseEmitter emitter, BlockingQueue<Entry> queue, AtomicBoolean draining) {
+    }
+
+    // name == null: heartbeat (comment)
+    private record Entry(String id, String name, String data) {
+        SseEmitter.SseEventBuilder toEvent() {
+            if (name == null)
+                return SseEmitter.event().comment("heartbeat");
+
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON);
+            return id != null ? event.id(id) : event;
+        }
+    }
+}
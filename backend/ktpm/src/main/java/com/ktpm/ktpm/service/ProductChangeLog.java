@@ -0,0 +1,184 @@
+package com.ktpm.ktpm.service;
+
+import com.ktpm.ktpm.dto.response.ProductChangeResponse;
+import com.ktpm.ktpm.dto.response.ProductSyncResponse;
+import com.ktpm.ktpm.entity.ChangeLogHorizon;
+import com.ktpm.ktpm.entity.ProductChangeEntity;
+import com.ktpm.ktpm.entity.ProductEntity;
+import com.ktpm.ktpm.event.ProductChangedEvent;
+import com.ktpm.ktpm.exception.AppException;
+import com.ktpm.ktpm.exception.ErrorType;
+import com.ktpm.ktpm.mapper.ProductionMapper;
+import com.ktpm.ktpm.repository.ChangeLogHorizonRepository;
+import com.ktpm.ktpm.repository.ProductChangeRepository;
+import com.ktpm.ktpm.repository.ProductRepository;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Ghi mỗi lần thay đổi sản phẩm vào product_change trong cùng transaction, phục vụ GET /product/changes.
+// seq lấy từ auto-increment nên transaction commit sau có thể mang seq nhỏ hơn một transaction đã commit trước;
+// vì vậy chỉ trả các thay đổi cũ hơn settle window (dài hơn mọi transaction ghi sản phẩm) để client không bỏ sót
+@Service
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProductChangeLog {
+    static final String HORIZON = "product";
+    // changed_at lấy giờ của DB, cùng đồng hồ với điều kiện settle window khi đọc
+    static final String INSERT_SQL =
+            "insert into product_change (product_id, change_type, changed_at) values (?, ?, current_timestamp(6))";
+
+    ProductChangeRepository productChangeRepository;
+    ChangeLogHorizonRepository changeLogHorizonRepository;
+    ProductRepository productRepository;
+    ProductionMapper productionMapper;
+    JdbcTemplate jdbcTemplate;
+    int defaultPageSize;
+    int maxPageSize;
+    Duration settleWindow;
+    Duration tombstoneRetention;
+    int compactionBatchSize;
+
+    public ProductChangeLog(ProductChangeRepository productChangeRepository,
+                            ChangeLogHorizonRepository changeLogHorizonRepository,
+                            ProductRepository productRepository,
+                            ProductionMapper productionMapper,
+                            JdbcTemplate jdbcTemplate,
+                            @Value("${product.changes.default-size}") int defaultPageSize,
+                            @Value("${product.changes.max-size}") int maxPageSize,
+                            @Value("${product.changes.settle-window}") Duration settleWindow,
+                            @Value("${product.changes.tombstone-retention}") Duration tombstoneRetention,
+                            @Value("${product.changes.compaction-batch-size}") int compactionBatchSize) {
+        this.productChangeRepository = productChangeRepository;
+        this.changeLogHorizonRepository = changeLogHorizonRepository;
+        this.productRepository = productRepository;
+        this.productionMapper = productionMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.settleWindow = settleWindow;
+        this.tombstoneRetention = tombstoneRetention;
+        this.compactionBatchSize = compactionBatchSize;
+    }
+
+    // Chạy trước commit, trong cùng transaction với thay đổi sản phẩm
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductChangeEntity.ChangeType changeType = event.type() == ProductChangedEvent.Type.DELETED
+                ? ProductChangeEntity.ChangeType.DELETE
+                : ProductChangeEntity.ChangeType.UPSERT;
+        List<String> productIds = event.type() == ProductChangedEvent.Type.IMPORTED
+                ? event.productIds()
+                : List.of(event.productId());
+
+        // JDBC batch: IDENTITY làm Hibernate tắt batch insert, import 500 sản phẩm vẫn chỉ là một lô
+        jdbcTemplate.batchUpdate(INSERT_SQL, productIds, productIds.size(), (statement, productId) -> {
+            statement.setString(1, productId);
+            statement.setString(2, changeType.name());
+        });
+    }
+
+    // Các thay đổi sau mốc since, mỗi trang 3 câu query (mốc đã dọn + nhật ký + sản phẩm) bất kể kích thước danh mục
+    public ProductSyncResponse getChanges(long since, Integer requestedSize) {
+        if (since < 0)
+            throw new AppException(ErrorType.BAD_REQUEST);
+        // Tombstone sau mốc này đã bị dọn -> không thể đồng bộ tiếp.
+        // Đọc từ DB mỗi lần (theo khóa chính): compaction có thể đã chạy ở instance khác
+        if (since > 0 && since < purgedThroughSeq())
+            throw new AppException(ErrorType.SYNC_EXPIRED);
+
+        int size = requestedSize == null
+                ? defaultPageSize
+                : Math.min(Math.max(requestedSize, 1), maxPageSize);
+
+        List<ProductChangeEntity> changes = productChangeRepository.findChangesAfter(
+                since, settleWindow.toSeconds(), PageRequest.ofSize(size + 1));
+
+        boolean hasMore = changes.size() > size;
+        if (hasMore)
+            changes = changes.subList(0, size);
+        long lastSeq = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq();
+
+        // Sản phẩm đổi nhiều lần trong cùng trang chỉ cần bản ghi cuối cùng
+        Map<String, ProductChangeEntity> latest = changes.stream()
+                .collect(Collectors.toMap(ProductChangeEntity::getProductId, Function.identity(), (older, newer) -> newer));
+        changes = changes.stream()
+                .filter(change -> latest.get(change.getProductId()) == change)
+                .toList();
+
+        List<String> upsertIds = changes.stream()
+                .filter(change -> change.getChangeType() == ProductChangeEntity.ChangeType.UPSERT)
+                .map(ProductChangeEntity::getProductId)
+                .toList();
+        Map<String, ProductEntity> products = upsertIds.isEmpty()
+                ? Map.of()
+                : productRepository.findAllById(upsertIds).stream()
+                        .collect(Collectors.toMap(ProductEntity::getId, Function.identity()));
+
+        return ProductSyncResponse.builder()
+                .changes(changes.stream()
+                        .map(change -> ProductChangeResponse.builder()
+                                .seq(change.getSeq())
+                                .type(change.getChangeType().name())
+                                .productId(change.getProductId())
+                                // null nếu sản phẩm đã bị xóa sau đó, tombstone nằm ở seq lớn hơn
+                                .product(change.getChangeType() == ProductChangeEntity.ChangeType.UPSERT
+                                        && products.containsKey(change.getProductId())
+                                        ? productionMapper.toResponse(products.get(change.getProductId()))
+                                        : null)
+                                .build())
+                        .collect(Collectors.toList()))
+                .lastSeq(lastSeq)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    // Dọn các bản ghi đã có bản mới hơn, sau đó các tombstone quá hạn giữ lại
+    @Scheduled(fixedDelayString = "${product.changes.compaction-interval}")
+    public void compact() {
+        PageRequest batch = PageRequest.ofSize(compactionBatchSize);
+
+        int superseded = 0;
+        List<Long> seqs;
+        do {
+            seqs = productChangeRepository.findSupersededSeqs(batch);
+            if (!seqs.isEmpty())
+                productChangeRepository.deleteAllByIdInBatch(seqs);
+            superseded += seqs.size();
+        } while (seqs.size() == compactionBatchSize);
+
+        int tombstones = 0;
+        do {
+            seqs = productChangeRepository.findTombstoneSeqsOlderThan(tombstoneRetention.toSeconds(), batch);
+            if (!seqs.isEmpty()) {
+                // Ghi mốc trước khi xóa: nếu dừng giữa chừng thì chỉ bắt client tải lại sớm hơn cần thiết
+                long horizon = seqs.get(seqs.size() - 1);
+                changeLogHorizonRepository.save(new ChangeLogHorizon(HORIZON, horizon));
+                productChangeRepository.deleteAllByIdInBatch(seqs);
+            }
+            tombstones += seqs.size();
+        } while (seqs.size() == compactionBatchSize);
+
+        if (superseded > 0 || tombstones > 0)
+            log.info("Compacted product change log: {} superseded, {} tombstones", superseded, tombstones);
+    }
+
+    private long purgedThroughSeq() {
+        return changeLogHorizonRepository.findById(HORIZON)
+                .map(ChangeLogHorizon::getPurgedThroughSeq)
+                .orElse(0L);
+    }
+}
@@ -0,0 +1,162 @@
+package com.ktpm.ktpm.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.ktpm.ktpm.dto.request.ProductCreationRequest;
+import com.ktpm.ktpm.dto.response.BulkImportResponse;
+import com.ktpm.ktpm.dto.response.BulkItemError;
+import com.ktpm.ktpm.entity.ProductEntity;
+import com.ktpm.ktpm.event.ProductChangedEvent;
+import com.ktpm.ktpm.mapper.ProductionMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Nhập sản phẩm hàng loạt: đọc request dạng stream, validate từng phần tử, lưu theo từng chunk bằng JDBC batch
+@Service
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProductImportService {
+    ObjectReader reader;
+    Validator validator;
+    ProductionMapper productionMapper;
+    EntityManager entityManager;
+    TransactionTemplate transactionTemplate;
+    ApplicationEventPublisher eventPublisher;
+    int chunkSize;
+    int maxReportedErrors;
+
+    public ProductImportService(ObjectMapper objectMapper,
+                                Validator validator,
+                                ProductionMapper productionMapper,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${product.import.chunk-size}") int chunkSize,
+                                @Value("${product.import.max-reported-errors}") int maxReportedErrors) {
+        this.reader = objectMapper.readerFor(ProductCreationRequest.class);
+        this.validator = validator;
+        this.productionMapper = productionMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    // Nhận một mảng JSON hoặc NDJSON (mỗi dòng một object)
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public BulkImportResponse importProducts(InputStream inputStream) throws IOException {
+        ImportResult result = new ImportResult();
+        List<Item> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+
+        try (MappingIterator<ProductCreationRequest> iterator = reader.readValues(inputStream)) {
+            while (true) {
+                ProductCreationRequest request;
+                try {
+                    if (!iterator.hasNextValue())
+                        break;
+                    request = iterator.nextValue();
+                } catch (JsonParseException e) {
+                    // Sai cú pháp JSON thì không thể đọc tiếp các phần tử sau
+                    result.fail(index, "Malformed JSON: " + e.getOriginalMessage());
+                    break;
+                } catch (DatabindException e) {
+                    result.fail(index++, "Invalid product: " + e.getOriginalMessage());
+                    continue;
+                }
+
+                Set<ConstraintViolation<ProductCreationRequest>> violations = validator.validate(request);
+                if (!violations.isEmpty()) {
+                    result.fail(index++, violations.stream()
+                            .map(ConstraintViolation::getMessage)
+                            .sorted()
+                            .collect(Collectors.joining("; ")));
+                    continue;
+                }
+
+                chunk.add(new Item(index++, productionMapper.toProductEntity(request)));
+                if (chunk.size() == chunkSize) {
+                    persistChunk(chunk, result);
+                    chunk.clear();
+                }
+            }
+        }
+
+        if (!chunk.isEmpty())
+            persistChunk(chunk, result);
+
+        log.info("Imported {} products, {} failed", result.succeeded, result.failed);
+
+        return BulkImportResponse.builder()
+                .total(result.succeeded + result.failed)
+                .succeeded(result.succeeded)
+                .failed(result.failed)
+                .errors(result.errors)
+                .build();
+    }
+
+    private void persistChunk(List<Item> chunk, ImportResult result) {
+        try {
+            persist(chunk);
+            result.succeeded += chunk.size();
+        } catch (RuntimeException e) {
+            // Lỗi ở DB làm rollback cả chunk -> lưu lại từng phần tử để tìm đúng phần tử lỗi
+            log.warn("Chunk insert failed, retrying items one by one: {}", e.getMessage());
+            for (Item item : chunk) {
+                try {
+                    item.entity().setId(null);
+                    persist(List.of(item));
+                    result.succeeded++;
+                } catch (RuntimeException itemException) {
+                    result.fail(item.index(), "Cannot save product: " + itemException.getMessage());
+                }
+            }
+        }
+    }
+
+    private void persist(List<Item> items) {
+        transactionTemplate.executeWithoutResult(status -> {
+            items.forEach(item -> entityManager.persist(item.entity()));
+            entityManager.flush();
+            entityManager.clear();
+            eventPublisher.publishEvent(ProductChangedEvent.imported(
+                    items.stream().map(item -> item.entity().getId()).toList()));
+        });
+    }
+
+    private record Item(int index, ProductEntity entity) {
+    }
+
+    private class ImportResult {
+        int succeeded;
+        int failed;
+        List<BulkItemError> errors = new ArrayList<>();
+
+        void fail(int index, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors)
+                errors.add(new BulkItemError(index, message));
+        }
+    }
+}
@@ -1,22 +1,59 @@
 package com.ktpm.ktpm.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ktpm.ktpm.configuration.CacheConfig;
+import com.ktpm.ktpm.configuration.ProductCache;
+import com.ktpm.ktpm.configuration.ReplicaRouting;
 import com.ktpm.ktpm.dto.request.ProductCreationRequest;
+import com.ktpm.ktpm.dto.request.ProductPageRequest;
 import com.ktpm.ktpm.dto.request.ProductUpdateRequest;
+import com.ktpm.ktpm.dto.response.CursorPageResponse;
+import com.ktpm.ktpm.dto.response.ProductBatchResponse;
+import com.ktpm.ktpm.dto.response.ProductPatchResponse;
 import com.ktpm.ktpm.dto.response.ProductResponse;
 import com.ktpm.ktpm.entity.ProductEntity;
+import com.ktpm.ktpm.event.ProductChangedEvent;
 import com.ktpm.ktpm.exception.AppException;
 import com.ktpm.ktpm.exception.ErrorType;
 import com.ktpm.ktpm.mapper.ProductionMapper;
 import com.ktpm.ktpm.repository.ProductRepository;
+import com.ktpm.ktpm.repository.ProductSpecifications;
+import com.ktpm.ktpm.util.CursorCodec;
+import com.ktpm.ktpm.util.Uuids;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.validation.Validator;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -24,44 +61,257 @@ import java.util.stream.Collectors;
 public class ProductService {
     ProductRepository productRepository;
     ProductionMapper productionMapper;
+    ObjectMapper objectMapper;
+    EntityManager entityManager;
+    MeterRegistry meterRegistry;
+    ApplicationEventPublisher eventPublisher;
+    Validator validator;
+    ProductCache productCache;
+
+    private static final Sort PAGE_SORT = Sort.by("createdAt", "id");
+
+    @Value("${product.page.default-size}")
+    @NonFinal
+    int defaultPageSize;
+
+    @Value("${product.page.max-size}")
+    @NonFinal
+    int maxPageSize;
+
+    @Value("${product.batch.max-size}")
+    @NonFinal
+    int maxBatchSize;
+
+    @Value("${product.export.flush-every}")
+    @NonFinal
+    int exportFlushEvery;
 
     @Transactional
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
     public ProductResponse createProduct(ProductCreationRequest request) {
-        ProductEntity productEntity = productionMapper.toProductEntity(request);
-        return productionMapper.toResponse(productRepository.save(productEntity));
+        ProductResponse response = productionMapper.toResponse(
+                productRepository.save(productionMapper.toProductEntity(request)));
+        eventPublisher.publishEvent(ProductChangedEvent.created(response));
+        return response;
     }
 
+    // Không dùng @Cacheable: put phải kèm stamp để lần nạp chạy song song với một lần cập nhật không ghi
+    // đè giá trị cũ vào cache sau khi đã evict. Nạp ngoài Caffeine compute để không pin carrier thread
     public ProductResponse getProductById(String id) {
-        ProductEntity product = productRepository.findById(id)
-                .orElseThrow(() -> new AppException(ErrorType.NOT_FOUND));
-        return productionMapper.toResponse(product);
+        ProductResponse cached = productCache.find(id);
+        if (cached != null)
+            return cached;
+
+        long stamp = productCache.stamp();
+        // Chỉ chạy khi cache miss -> đo thời gian nạp từ DB.
+        // Giá trị nạp vào cache dùng chung phải đọc từ primary: replica đang trễ sẽ giữ bản cũ trong cache đến hết TTL
+        ProductResponse product = meterRegistry.timer("cache.load.duration", "cache", CacheConfig.PRODUCTS).record(() ->
+                ReplicaRouting.onPrimary(() -> productionMapper.toResponse(productRepository.findById(id)
+                        .orElseThrow(() -> new AppException(ErrorType.NOT_FOUND)))));
+        productCache.put(product, stamp);
+        return product;
     }
 
-    public List<ProductResponse> getAllProducts() {
-        return productRepository.findAll()
-                .stream()
-                .map(productionMapper::toResponse)
-                .collect(Collectors.toList());
+    // Nhiều sản phẩm trong một lần gọi: lấy từ cache trước, các id còn thiếu nạp bằng một câu "where id in (...)"
+    public ProductBatchResponse getProductsByIds(List<String> ids) {
+        // Kiểm tra số lượng trước khi dựng set, danh sách quá dài bị từ chối ngay
+        if (ids == null || ids.isEmpty() || ids.size() > maxBatchSize)
+            throw new AppException(ErrorType.BAD_REQUEST);
+
+        // Cache và DB trả id dạng chữ thường: chuẩn hóa để "ABC..." và "abc..." là cùng một sản phẩm
+        Set<String> uniqueIds = new LinkedHashSet<>();
+        for (String id : ids)
+            uniqueIds.add(Uuids.normalize(id));
+
+        Map<String, ProductResponse> found = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String id : uniqueIds) {
+            ProductResponse cached = productCache.find(id);
+            if (cached != null)
+                found.put(id, cached);
+            else
+                misses.add(id);
+        }
+
+        if (!misses.isEmpty()) {
+            long stamp = productCache.stamp();
+            // Đọc từ primary như getProductById vì kết quả được put vào cache
+            List<ProductEntity> products = meterRegistry.timer("cache.load.duration", "cache", CacheConfig.PRODUCTS)
+                    .record(() -> ReplicaRouting.onPrimary(() -> productRepository.findAllById(misses)));
+            for (ProductEntity product : products) {
+                ProductResponse response = productionMapper.toResponse(product);
+                found.put(response.getId(), response);
+                productCache.put(response, stamp);
+            }
+        }
+
+        List<ProductResponse> items = new ArrayList<>(found.size());
+        List<String> missing = new ArrayList<>();
+        for (String id : uniqueIds) {
+            ProductResponse product = found.get(id);
+            if (product != null)
+                items.add(product);
+            else
+                missing.add(id);
+        }
+
+        return ProductBatchResponse.builder()
+                .items(items)
+                .missing(missing)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ProductResponse> getProducts(ProductPageRequest request) {
+        int size = request.getSize() == null
+                ? defaultPageSize
+                : Math.min(Math.max(request.getSize(), 1), maxPageSize);
+
+        Specification<ProductEntity> spec = Specification.allOf();
+        if (request.getCursor() != null && !request.getCursor().isBlank()) {
+            String[] cursor = CursorCodec.decode(request.getCursor(), 2);
+            try {
+                spec = spec.and(ProductSpecifications.after(LocalDateTime.parse(cursor[0]), CursorCodec.requireUuid(cursor[1])));
+            } catch (DateTimeParseException e) {
+                throw new AppException(ErrorType.INVALID_CURSOR);
+            }
+        }
+        if (request.getMinPrice() != null)
+            spec = spec.and(ProductSpecifications.priceAtLeast(request.getMinPrice()));
+        if (request.getMaxPrice() != null)
+            spec = spec.and(ProductSpecifications.priceAtMost(request.getMaxPrice()));
+        if (request.getName() != null && !request.getName().isBlank())
+            spec = spec.and(ProductSpecifications.nameStartsWith(request.getName()));
+
+        // Lấy dư 1 dòng để biết còn trang sau hay không
+        List<ProductEntity> products = productRepository.findBy(spec, query -> query
+                .sortBy(PAGE_SORT)
+                .limit(size + 1)
+                .all());
+
+        boolean hasNext = products.size() > size;
+        if (hasNext)
+            products = products.subList(0, size);
+
+        String nextCursor = null;
+        if (hasNext) {
+            ProductEntity last = products.get(products.size() - 1);
+            nextCursor = CursorCodec.encode(last.getCreatedAt().toString(), last.getId());
+        }
+
+        return CursorPageResponse.<ProductResponse>builder()
+                .items(products.stream()
+                        .map(productionMapper::toResponse)
+                        .collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
+    }
+
+    // Ghi toàn bộ sản phẩm ra dạng NDJSON, mỗi dòng một sản phẩm, bộ nhớ không phụ thuộc số lượng
+    @Transactional(readOnly = true)
+    public void exportProducts(OutputStream outputStream) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(ProductResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+
+        try (Stream<ProductEntity> products = productRepository.streamAll()) {
+            Iterator<ProductEntity> iterator = products.iterator();
+            int count = 0;
+            while (iterator.hasNext()) {
+                ProductEntity product = iterator.next();
+                writer.writeValue(generator, productionMapper.toResponse(product));
+                generator.writeRaw('\n');
+                entityManager.detach(product);
+
+                // Flush dòng đầu tiên ngay để client nhận byte đầu sớm
+                if (++count == 1 || count % exportFlushEvery == 0)
+                    generator.flush();
+            }
+        }
+        generator.flush();
     }
 
     @Transactional
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id")
     public ProductResponse updateProduct(String id, ProductUpdateRequest request) {
         ProductEntity productEntity = productRepository.findById(id)
                 .orElseThrow(() -> new AppException(ErrorType.NOT_FOUND));
 
         productionMapper.updateProduct(productEntity, request);
+        // flush để version/updatedAt trong response là giá trị sau khi cập nhật
+        ProductResponse response = productionMapper.toResponse(productRepository.saveAndFlush(productEntity));
+        eventPublisher.publishEvent(ProductChangedEvent.updated(response));
+
+        return response;
+    }
+
+    // PATCH: chỉ SET các trường có trong request, một câu UPDATE kèm điều kiện version, không đọc sản phẩm trước.
+    // Không có dòng nào bị sửa -> kiểm tra tồn tại để phân biệt 404 với 409 (chỉ tốn thêm query khi thất bại)
+    @Transactional
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id")
+    public ProductPatchResponse patchProduct(String id, long version, ProductUpdateRequest request) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        putIfPresent(changes, request, "productName", request.getProductName());
+        putIfPresent(changes, request, "description", request.getDescription());
+        putIfPresent(changes, request, "price", request.getPrice());
+        putIfPresent(changes, request, "amount", request.getAmount());
+        if (changes.isEmpty())
+            throw new AppException(ErrorType.BAD_REQUEST);
+
+        // updatedAt truyền vào thay vì "local datetime" để trả về đúng giá trị đã ghi
+        LocalDateTime updatedAt = LocalDateTime.now();
+        StringBuilder hql = new StringBuilder("update versioned ProductEntity p set p.updatedAt = :updatedAt");
+        changes.keySet().forEach(field -> hql.append(", p.").append(field).append(" = :").append(field));
+        hql.append(" where p.id = :id and p.version = :version");
+
+        Query query = entityManager.createQuery(hql.toString())
+                .setParameter("updatedAt", updatedAt)
+                .setParameter("id", id)
+                .setParameter("version", version);
+        changes.forEach(query::setParameter);
+
+        if (query.executeUpdate() == 0) {
+            if (!productRepository.existsById(id))
+                throw new AppException(ErrorType.NOT_FOUND);
+            throw new AppException(ErrorType.VERSION_CONFLICT);
+        }
+
+        ProductPatchResponse response = ProductPatchResponse.builder()
+                .id(id)
+                .productName(request.getProductName())
+                .description(request.getDescription())
+                .price(request.getPrice())
+                .amount(request.getAmount())
+                .updatedAt(updatedAt)
+                .version(version + 1)
+                .build();
+        eventPublisher.publishEvent(ProductChangedEvent.patched(response));
+
+        return response;
+    }
 
-        return productionMapper.toResponse(productRepository.save(productEntity));
+    // Chỉ validate trường được gửi lên, ràng buộc lấy từ annotation của ProductUpdateRequest
+    private void putIfPresent(Map<String, Object> changes, ProductUpdateRequest request, String field, Object value) {
+        if (value == null)
+            return;
+        if (!validator.validateProperty(request, field).isEmpty())
+            throw new AppException(ErrorType.BAD_REQUEST);
+        changes.put(field, value);
     }
 
     @Transactional
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id")
     public void deleteProduct(String id) {
         if (!productRepository.existsById(id)) {
             throw new AppException(ErrorType.NOT_FOUND);
         }
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
     }
 }
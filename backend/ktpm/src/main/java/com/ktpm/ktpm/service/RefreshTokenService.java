@@ -0,0 +1,138 @@
+package com.ktpm.ktpm.service;
+
+import com.ktpm.ktpm.entity.RefreshToken;
+import com.ktpm.ktpm.exception.AppException;
+import com.ktpm.ktpm.exception.ErrorType;
+import com.ktpm.ktpm.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+// Refresh token dạng chuỗi ngẫu nhiên, mỗi lần dùng sẽ bị đổi sang token mới (rotation).
+// Dùng lại một token đã đổi -> coi như bị lộ, thu hồi cả family
+@Service
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RefreshTokenService {
+    RefreshTokenRepository refreshTokenRepository;
+    MeterRegistry meterRegistry;
+    long expirationTime;
+    int purgeBatchSize;
+    SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${jwt.refresh.expiration-time}") long expirationTime,
+                               @Value("${jwt.refresh.purge-batch-size}") int purgeBatchSize) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.meterRegistry = meterRegistry;
+        this.expirationTime = expirationTime;
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    // Tạo family mới cho một lần đăng nhập
+    @Transactional
+    public String issue(String userId) {
+        return issue(userId, UUID.randomUUID().toString());
+    }
+
+    @Transactional(noRollbackFor = AppException.class)
+    public Rotation rotate(String token) {
+        if (token == null || token.isBlank())
+            throw new AppException(ErrorType.UNAUTHORIZED);
+
+        String tokenHash = hash(token);
+        int updated = refreshTokenRepository.markUsed(tokenHash, new Date());
+        RefreshToken refreshToken = refreshTokenRepository.findById(tokenHash)
+                .orElseThrow(() -> new AppException(ErrorType.UNAUTHORIZED));
+
+        if (updated == 0) {
+            if (refreshToken.getUsedAt() != null) {
+                // Token đã đổi rồi mà còn được gửi lên -> thu hồi cả family, kể cả token mới nhất
+                refreshTokenRepository.revokeFamily(refreshToken.getFamilyId());
+                meterRegistry.counter("auth.refresh.reuse").increment();
+                log.warn("Refresh token reuse detected, revoked family {} of user {}",
+                        refreshToken.getFamilyId(), refreshToken.getUserId());
+            }
+            throw new AppException(ErrorType.UNAUTHORIZED);
+        }
+
+        String next = issue(refreshToken.getUserId(), refreshToken.getFamilyId());
+        return new Rotation(refreshToken.getUserId(), next);
+    }
+
+    @Transactional
+    public void revoke(String token) {
+        if (token == null || token.isBlank())
+            return;
+
+        refreshTokenRepository.findById(hash(token))
+                .ifPresent(refreshToken -> refreshTokenRepository.revokeFamily(refreshToken.getFamilyId()));
+    }
+
+    @Transactional
+    public void revokeUser(String userId) {
+        refreshTokenRepository.revokeByUserId(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh.purge-interval}")
+    public void purge() {
+        // Xóa các dòng đã hết hạn theo từng lô để không giữ lock lâu
+        Date time = new Date();
+        int deleted = 0;
+        List<String> ids;
+        do {
+            ids = refreshTokenRepository.findExpiredIds(time, PageRequest.of(0, purgeBatchSize));
+            if (!ids.isEmpty())
+                refreshTokenRepository.deleteAllByIdInBatch(ids);
+            deleted += ids.size();
+        } while (ids.size() == purgeBatchSize);
+
+        if (deleted > 0)
+            log.info("Purged {} expired refresh tokens", deleted);
+    }
+
+    private String issue(String userId, String familyId) {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(token))
+                .familyId(familyId)
+                .userId(userId)
+                .expiryTime(new Date(System.currentTimeMillis() + expirationTime * 1000))
+                .build());
+
+        return token;
+    }
+
+    // Token có 256 bit ngẫu nhiên nên SHA-256 là đủ, không cần hash chậm như mật khẩu
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record Rotation(String userId, String refreshToken) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.ktpm.ktpm.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ktpm.ktpm.entity.RoleEntity;
+import com.ktpm.ktpm.entity.UserEntity;
+import com.ktpm.ktpm.repository.RoleRepository;
+import com.ktpm.ktpm.repository.UserRepository;
+import com.ktpm.ktpm.repository.projection.UserRoleName;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Danh mục roles trong bộ nhớ: scope của mỗi tổ hợp role được dựng sẵn và dùng chung một instance String,
+// roles của từng user được cache -> login/tạo token không query roles/user_roles
+@Service
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RoleCatalog {
+    public static final String USER_ROLES_CACHE = "userRoles";
+    // Quá số role này thì không dựng sẵn mọi tổ hợp (2^n), scope được dựng khi gặp lần đầu
+    static final int MAX_PRECOMPUTED_ROLES = 10;
+
+    RoleRepository roleRepository;
+    UserRepository userRepository;
+
+    // Tập tên role (immutable) -> scope, vd: {ADMIN, USER} -> "ROLE_ADMIN ROLE_USER"
+    Map<Set<String>, String> scopes = new ConcurrentHashMap<>();
+    // userId -> tên các role của user
+    Cache<String, Set<String>> userRoles;
+
+    @NonFinal
+    volatile Map<String, RoleEntity> roles = Map.of();
+
+    public RoleCatalog(RoleRepository roleRepository,
+                       UserRepository userRepository,
+                       @Value("${security.roles.user-cache-spec}") String userCacheSpec,
+                       MeterRegistry meterRegistry) {
+        this.roleRepository = roleRepository;
+        this.userRepository = userRepository;
+        this.userRoles = Caffeine.from(userCacheSpec).build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, userRoles, USER_ROLES_CACHE);
+    }
+
+    @PostConstruct
+    public void refresh() {
+        Map<String, RoleEntity> loaded = roleRepository.findAll().stream()
+                .collect(Collectors.toUnmodifiableMap(RoleEntity::getRoleName, Function.identity()));
+
+        roles = loaded;
+        scopes.clear();
+        userRoles.invalidateAll();
+
+        if (loaded.size() <= MAX_PRECOMPUTED_ROLES)
+            precomputeScopes(new ArrayList<>(loaded.keySet()));
+
+        log.info("Role catalog loaded {} roles, {} scopes", loaded.size(), scopes.size());
+    }
+
+    public Map<String, RoleEntity> getRoles() {
+        return roles;
+    }
+
+    public String scopeOf(UserEntity user) {
+        // User được dựng sẵn roles (vd: vừa tạo) thì dùng luôn, không thì lấy từ cache
+        if (user.getRoles() != null && Hibernate.isInitialized(user.getRoles()))
+            return scopeOf(user.getRoles().stream()
+                    .map(RoleEntity::getRoleName)
+                    .collect(Collectors.toUnmodifiableSet()));
+
+        return scopeOf(userRoles.get(user.getId(), this::loadRoleNames));
+    }
+
+    public String scopeOf(Set<String> roleNames) {
+        return scopes.computeIfAbsent(Set.copyOf(roleNames), RoleCatalog::buildScope);
+    }
+
+    // Gọi khi roles của user thay đổi hoặc user bị xóa
+    public void evictUser(String userId) {
+        userRoles.invalidate(userId);
+    }
+
+    private Set<String> loadRoleNames(String userId) {
+        return userRepository.findRoleNames(List.of(userId)).stream()
+                .map(UserRoleName::roleName)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private void precomputeScopes(List<String> roleNames) {
+        int combinations = 1 << roleNames.size();
+        for (int mask = 0; mask < combinations; mask++) {
+            Set<String> combination = new HashSet<>();
+            for (int i = 0; i < roleNames.size(); i++) {
+                if ((mask & (1 << i)) != 0)
+                    combination.add(roleNames.get(i));
+            }
+            scopeOf(combination);
+        }
+    }
+
+    // Sắp xếp tên role để cùng một tổ hợp luôn cho ra cùng một scope
+    private static String buildScope(Set<String> roleNames) {
+        return roleNames.stream()
+                .sorted()
+                .map(roleName -> "ROLE_" + roleName)
+                .collect(Collectors.joining(" "))
+                .intern();
+    }
+}
@@ -0,0 +1,106 @@
+package com.ktpm.ktpm.service;
+
+import com.ktpm.ktpm.entity.InvalidatedToken;
+import com.ktpm.ktpm.repository.InvalidatedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Danh sách token đã thu hồi giữ trong bộ nhớ, chỉ gồm các token chưa hết hạn
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TokenRevocationService {
+    InvalidatedTokenRepository invalidatedTokenRepository;
+
+    // jwtId -> thời điểm hết hạn (epoch millis)
+    Map<String, Long> revoked = new ConcurrentHashMap<>();
+    // Sắp xếp theo thời điểm hết hạn để dọn dẹp
+    ConcurrentSkipListSet<Revocation> byExpiry = new ConcurrentSkipListSet<>();
+
+    @Value("${jwt.revocation.purge-batch-size}")
+    @NonFinal
+    int purgeBatchSize;
+
+    @PostConstruct
+    void load() {
+        List<InvalidatedToken> tokens = invalidatedTokenRepository.findByExpiryTimeAfter(new Date());
+        tokens.forEach(token -> index(token.getId(), token.getExpiryTime()));
+
+        log.info("Loaded {} revoked tokens", tokens.size());
+    }
+
+    public boolean isRevoked(String jwtId) {
+        // Token không có jti thì không thể thu hồi được -> coi như không hợp lệ
+        if (jwtId == null)
+            return true;
+
+        return revoked.containsKey(jwtId);
+    }
+
+    public void revoke(String jwtId, Date expiryTime) {
+        invalidatedTokenRepository.save(InvalidatedToken.builder()
+                .id(jwtId)
+                .expiryTime(expiryTime)
+                .build());
+
+        index(jwtId, expiryTime);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval}")
+    public void purge() {
+        long now = System.currentTimeMillis();
+
+        for (Revocation revocation : byExpiry) {
+            if (revocation.expiresAt() > now)
+                break;
+
+            byExpiry.remove(revocation);
+            revoked.remove(revocation.jwtId(), revocation.expiresAt());
+        }
+
+        // Xóa các dòng đã hết hạn theo từng lô để không giữ lock lâu
+        Date time = new Date(now);
+        int deleted = 0;
+        List<String> ids;
+        do {
+            ids = invalidatedTokenRepository.findExpiredIds(time, PageRequest.of(0, purgeBatchSize));
+            if (!ids.isEmpty())
+                invalidatedTokenRepository.deleteAllByIdInBatch(ids);
+            deleted += ids.size();
+        } while (ids.size() == purgeBatchSize);
+
+        if (deleted > 0)
+            log.info("Purged {} expired revoked tokens", deleted);
+    }
+
+    private void index(String jwtId, Date expiryTime) {
+        if (jwtId == null || expiryTime == null || expiryTime.getTime() <= System.currentTimeMillis())
+            return;
+
+        revoked.put(jwtId, expiryTime.getTime());
+        byExpiry.add(new Revocation(expiryTime.getTime(), jwtId));
+    }
+
+    private record Revocation(long expiresAt, String jwtId) implements Comparable<Revocation> {
+        @Override
+        public int compareTo(Revocation other) {
+            int result = Long.compare(expiresAt, other.expiresAt);
+            return result != 0 ? result : jwtId.compareTo(other.jwtId);
+        }
+    }
+}
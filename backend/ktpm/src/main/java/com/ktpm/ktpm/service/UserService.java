@@ -1,20 +1,34 @@
 package com.ktpm.ktpm.service;
 
 import com.ktpm.ktpm.dto.request.UserCreationRequest;
+import com.ktpm.ktpm.dto.request.UserPageRequest;
+import com.ktpm.ktpm.dto.response.CursorPageResponse;
 import com.ktpm.ktpm.dto.response.UserResponse;
 import com.ktpm.ktpm.entity.UserEntity;
 import com.ktpm.ktpm.exception.AppException;
 import com.ktpm.ktpm.exception.ErrorType;
 import com.ktpm.ktpm.mapper.UserMapper;
 import com.ktpm.ktpm.repository.UserRepository;
+import com.ktpm.ktpm.repository.projection.UserRoleName;
+import com.ktpm.ktpm.repository.projection.UserSummary;
+import com.ktpm.ktpm.util.CursorCodec;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,6 +38,17 @@ public class UserService {
     UserRepository userRepository;
     UserMapper userMapper;
     PasswordEncoder passwordEncoder;
+    RoleCatalog roleCatalog;
+    RefreshTokenService refreshTokenService;
+    TransactionTemplate transactionTemplate;
+
+    @Value("${user.page.default-size}")
+    @NonFinal
+    int defaultPageSize;
+
+    @Value("${user.page.max-size}")
+    @NonFinal
+    int maxPageSize;
 
     // Tạo user mới
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
@@ -39,19 +64,45 @@ public class UserService {
     }
 
     // Lấy user theo id
+    @Transactional(readOnly = true)
     public UserResponse getUserById(String id) {
         UserEntity user = userRepository.findById(id)
                 .orElseThrow(() -> new AppException(ErrorType.NOT_FOUND));
         return userMapper.toUserResponse(user);
     }
 
-    // Lấy tất cả users
+    // Lấy danh sách users theo trang: 1 query cho trang users + 1 query cho roles, bất kể kích thước trang
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
-    public List<UserResponse> getAllUsers() {
-        return userRepository.findAll()
-                .stream()
-                .map(userMapper::toUserResponse)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPageResponse<UserResponse> getUsers(UserPageRequest request) {
+        int size = request.getSize() == null
+                ? defaultPageSize
+                : Math.min(Math.max(request.getSize(), 1), maxPageSize);
+
+        // Lấy dư 1 dòng để biết còn trang sau hay không
+        PageRequest limit = PageRequest.ofSize(size + 1);
+        List<UserSummary> users = request.getCursor() == null || request.getCursor().isBlank()
+                ? userRepository.findSummaries(limit)
+                : userRepository.findSummariesAfter(CursorCodec.requireUuid(CursorCodec.decode(request.getCursor(), 1)[0]), limit);
+
+        boolean hasNext = users.size() > size;
+        if (hasNext)
+            users = users.subList(0, size);
+
+        Map<String, Set<String>> roles = new HashMap<>();
+        if (!users.isEmpty()) {
+            List<String> ids = users.stream().map(UserSummary::id).toList();
+            for (UserRoleName row : userRepository.findRoleNames(ids))
+                roles.computeIfAbsent(row.userId(), id -> new HashSet<>()).add(row.roleName());
+        }
+
+        return CursorPageResponse.<UserResponse>builder()
+                .items(users.stream()
+                        .map(user -> userMapper.toUserResponse(user, roles.getOrDefault(user.id(), Set.of())))
+                        .collect(Collectors.toList()))
+                .nextCursor(hasNext ? CursorCodec.encode(users.get(users.size() - 1).id()) : null)
+                .hasNext(hasNext)
+                .build();
     }
 
     // Xóa user theo id
@@ -61,19 +112,28 @@ public class UserService {
             throw new AppException(ErrorType.NOT_FOUND);
         }
         userRepository.deleteById(id);
+        roleCatalog.evictUser(id);
+        refreshTokenService.revokeUser(id);
     }
 
-    // Cập nhật thông tin user
+    // Cập nhật thông tin user. Băm mật khẩu trước khi mở transaction: encode có thể chờ hàng đợi BCrypt
+    // tới hết timeout, trong lúc đó không được giữ connection của pool
     public UserResponse updateUser(String id, UserCreationRequest request) {
-        UserEntity user = userRepository.findById(id)
-                .orElseThrow(() -> new AppException(ErrorType.NOT_FOUND));
+        String password = request.getPassword() != null && !request.getPassword().isBlank()
+                ? passwordEncoder.encode(request.getPassword())
+                : null;
 
-        user.setUserName(request.getUsername());
-        user.setEmail(request.getEmail());
-        if (request.getPassword() != null && !request.getPassword().isBlank()) {
-            user.setPassword(passwordEncoder.encode(request.getPassword()));
-        }
+        // Transaction để map roles (LAZY) của user vừa lưu
+        return transactionTemplate.execute(status -> {
+            UserEntity user = userRepository.findById(id)
+                    .orElseThrow(() -> new AppException(ErrorType.NOT_FOUND));
+
+            user.setUserName(request.getUsername());
+            user.setEmail(request.getEmail());
+            if (password != null)
+                user.setPassword(password);
 
-        return userMapper.toUserResponse(userRepository.save(user));
+            return userMapper.toUserResponse(userRepository.save(user));
+        });
     }
 }
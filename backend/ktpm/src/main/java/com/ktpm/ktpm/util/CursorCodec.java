@@ -0,0 +1,40 @@
+package com.ktpm.ktpm.util;
+
+import com.ktpm.ktpm.exception.AppException;
+import com.ktpm.ktpm.exception.ErrorType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Mã hóa/giải mã cursor phân trang dạng base64url của các giá trị khóa, ngăn cách bởi '|'
+public final class CursorCodec {
+    private static final String SEPARATOR = "|";
+
+    private CursorCodec() {
+    }
+
+    public static String encode(String... parts) {
+        String raw = String.join(SEPARATOR, parts);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Cursor hỏng (không phải base64, sai số phần) -> INVALID_CURSOR
+    public static String[] decode(String cursor, int expectedParts) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != expectedParts)
+                throw new AppException(ErrorType.INVALID_CURSOR);
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new AppException(ErrorType.INVALID_CURSOR);
+        }
+    }
+
+    // Phần khóa là id phải là UUID; Uuids.toBytes trả null sẽ khiến query trả về trang rỗng thay vì báo lỗi
+    public static String requireUuid(String part) {
+        if (Uuids.toBytes(part) == null)
+            throw new AppException(ErrorType.INVALID_CURSOR);
+        return part;
+    }
+}
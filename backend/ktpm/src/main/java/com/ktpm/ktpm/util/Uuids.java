@@ -0,0 +1,62 @@
+package com.ktpm.ktpm.util;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// UUIDv7 (RFC 9562): 48 bit millisecond + 12 bit bộ đếm + 62 bit ngẫu nhiên.
+// Giá trị sau luôn lớn hơn giá trị trước (so sánh theo byte), nên insert luôn nối vào cuối clustered index
+public final class Uuids {
+    // (millisecond << 12) | bộ đếm của lần sinh gần nhất
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private Uuids() {
+    }
+
+    public static UUID timeOrdered() {
+        long now = System.currentTimeMillis() << 12;
+        // Cùng millisecond thì tăng bộ đếm; tràn bộ đếm thì mượn millisecond kế tiếp
+        long state = LAST.updateAndGet(last -> Math.max(last + 1, now));
+
+        long msb = (state >>> 12) << 16 | 0x7000L | (state & 0xFFFL);
+        long lsb = ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    // null nếu chuỗi không phải UUID (id lấy từ URL), để câu query không khớp dòng nào thay vì lỗi 500
+    public static byte[] toBytes(String uuid) {
+        if (uuid == null || uuid.length() != 36)
+            return null;
+        try {
+            return toBytes(UUID.fromString(uuid));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Dạng chuẩn (chữ thường) của UUID để so khớp với id trong cache và kết quả query; không phải UUID thì giữ nguyên
+    public static String normalize(String uuid) {
+        if (uuid == null || uuid.length() != 36)
+            return uuid;
+        try {
+            return UUID.fromString(uuid).toString();
+        } catch (IllegalArgumentException e) {
+            return uuid;
+        }
+    }
+
+    public static String toString(byte[] bytes) {
+        if (bytes == null)
+            return null;
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+    }
+}
@@ -0,0 +1,40 @@
+-- Chuyển id của product/users (và user_roles.user_id) từ VARCHAR(36) sang BINARY(16), MySQL 8.
+-- ddl-auto: update không đổi kiểu cột đã có -> chạy tay một lần khi đã dừng ứng dụng, trước khi deploy bản mới:
+--   mysql -u root -p ktpm < binary-uuid-ids.sql
+-- Id cũ (UUIDv4) giữ nguyên giá trị, chỉ đổi cách lưu; id mới là UUIDv7.
+-- Các cột chỉ lưu id dạng chuỗi (product_change.product_id, refresh_token.user_id, ...) không cần đổi:
+-- BIN_TO_UUID trả về đúng chuỗi chữ thường như trước.
+
+-- Khóa ngoại user_roles -> users do Hibernate đặt tên ngẫu nhiên, tìm theo information_schema.
+-- Hibernate tạo lại khóa ngoại ở lần khởi động tiếp theo
+SELECT CONCAT('ALTER TABLE user_roles DROP FOREIGN KEY ', constraint_name) INTO @drop_fk
+FROM information_schema.key_column_usage
+WHERE table_schema = DATABASE() AND table_name = 'user_roles'
+  AND column_name = 'user_id' AND referenced_table_name = 'users'
+LIMIT 1;
+SET @drop_fk = COALESCE(@drop_fk, 'DO 0');
+PREPARE stmt FROM @drop_fk;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- product: index (created_at, id) chứa id nên xóa trước rồi tạo lại
+ALTER TABLE product ADD COLUMN id_bin BINARY(16) NULL;
+UPDATE product SET id_bin = UUID_TO_BIN(id);
+ALTER TABLE product DROP INDEX idx_product_created_at_id, DROP PRIMARY KEY, DROP COLUMN id;
+ALTER TABLE product CHANGE COLUMN id_bin id BINARY(16) NOT NULL FIRST, ADD PRIMARY KEY (id),
+    ADD INDEX idx_product_created_at_id (created_at, id);
+
+-- users
+ALTER TABLE users ADD COLUMN id_bin BINARY(16) NULL;
+UPDATE users SET id_bin = UUID_TO_BIN(id);
+ALTER TABLE users DROP PRIMARY KEY, DROP COLUMN id;
+ALTER TABLE users CHANGE COLUMN id_bin id BINARY(16) NOT NULL FIRST, ADD PRIMARY KEY (id);
+
+-- user_roles: khóa chính (user_id, role_name)
+ALTER TABLE user_roles ADD COLUMN user_id_bin BINARY(16) NULL;
+UPDATE user_roles SET user_id_bin = UUID_TO_BIN(user_id);
+ALTER TABLE user_roles DROP PRIMARY KEY, DROP COLUMN user_id;
+ALTER TABLE user_roles CHANGE COLUMN user_id_bin user_id BINARY(16) NOT NULL FIRST, ADD PRIMARY KEY (user_id, role_name);
+
+-- Thống kê mới cho optimizer sau khi đổi kiểu khóa
+ANALYZE TABLE product, users, user_roles;
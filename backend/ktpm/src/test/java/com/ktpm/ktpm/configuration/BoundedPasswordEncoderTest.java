@@ -0,0 +1,95 @@
+package com.ktpm.ktpm.configuration;
+
+import com.ktpm.ktpm.exception.AppException;
+import com.ktpm.ktpm.exception.ErrorType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+    final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger hashed = new AtomicInteger();
+    BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.shutdown();
+    }
+
+    @Test
+    void hashingTimeDoesNotCountTowardQueueTimeout() {
+        encoder = new BoundedPasswordEncoder(slowEncoder(Duration.ofMillis(300)), 1, 1, Duration.ofMillis(100), registry);
+
+        assertEquals("hashed:secret", encoder.encode("secret"));
+        assertEquals(0, registry.find("password.hashing.rejected").counters().size());
+    }
+
+    @Test
+    void queuedTaskPastTimeoutIsRemovedAndNeverHashed() throws Exception {
+        encoder = new BoundedPasswordEncoder(blockingEncoder(), 1, 1, Duration.ofMillis(100), registry);
+
+        // Chiếm worker duy nhất
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        while (hashed.get() == 0)
+            Thread.onSpinWait();
+
+        AppException exception = assertThrows(AppException.class, () -> encoder.encode("second"));
+        assertEquals(ErrorType.SERVICE_UNAVAILABLE, exception.getErrorType());
+        assertEquals(1, registry.counter("password.hashing.rejected", "reason", "queue_timeout", "uri", RequestTags.UNKNOWN).count());
+
+        // Task quá hạn đã được gỡ: hàng đợi trống chỗ ngay và worker không băm nó
+        assertEquals(0, registry.get("password.hashing.queue.size").gauge().value());
+        release.countDown();
+        assertEquals("hashed:first", running.get(5, TimeUnit.SECONDS));
+        assertEquals(1, hashed.get());
+    }
+
+    private PasswordEncoder slowEncoder(Duration hashTime) {
+        return new FakeEncoder() {
+            @Override
+            void await() throws InterruptedException {
+                Thread.sleep(hashTime.toMillis());
+            }
+        };
+    }
+
+    private PasswordEncoder blockingEncoder() {
+        return new FakeEncoder() {
+            @Override
+            void await() throws InterruptedException {
+                release.await();
+            }
+        };
+    }
+
+    abstract class FakeEncoder implements PasswordEncoder {
+        abstract void await() throws InterruptedException;
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            hashed.incrementAndGet();
+            try {
+                await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
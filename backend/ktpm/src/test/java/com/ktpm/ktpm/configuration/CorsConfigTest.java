@@ -0,0 +1,43 @@
+package com.ktpm.ktpm.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.filter.CorsFilter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Trình duyệt của FE: preflight cho PATCH và đọc được ETag của response
+class CorsConfigTest {
+    static final String ORIGIN = "http://localhost:3000";
+
+    CorsFilter corsFilter = new SecurityConfig().corsFilter();
+
+    @Test
+    void preflightAllowsPatchWithIfMatch() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("OPTIONS", "/product/1");
+        request.addHeader(HttpHeaders.ORIGIN, ORIGIN);
+        request.addHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "PATCH");
+        request.addHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS, HttpHeaders.IF_MATCH);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        corsFilter.doFilter(request, response, new MockFilterChain());
+
+        assertEquals(200, response.getStatus());
+        assertTrue(response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS).contains("PATCH"));
+    }
+
+    @Test
+    void etagIsExposedToBrowser() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/product/1");
+        request.addHeader(HttpHeaders.ORIGIN, ORIGIN);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        corsFilter.doFilter(request, response, new MockFilterChain());
+
+        assertEquals(ORIGIN, response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN));
+        assertEquals(HttpHeaders.ETAG, response.getHeader(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS));
+    }
+}
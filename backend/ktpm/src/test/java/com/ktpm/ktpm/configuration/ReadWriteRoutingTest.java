@@ -0,0 +1,206 @@
+package com.ktpm.ktpm.configuration;
+
+import com.ktpm.ktpm.dto.request.ProductUpdateRequest;
+import com.ktpm.ktpm.dto.response.ProductResponse;
+import com.ktpm.ktpm.entity.ProductEntity;
+import com.ktpm.ktpm.entity.UserEntity;
+import com.ktpm.ktpm.repository.ProductRepository;
+import com.ktpm.ktpm.repository.UserRepository;
+import com.ktpm.ktpm.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Hai database H2 độc lập đóng vai primary và replica, "replication" là chép snapshot của primary sang replica
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ktpm-primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "datasource.replica.enabled=true",
+        "datasource.replica.pool.jdbc-url=jdbc:h2:mem:ktpm-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "datasource.replica.pool.driver-class-name=org.h2.Driver",
+        "datasource.replica.pool.username=sa",
+        "datasource.replica.pool.password=",
+        "datasource.replica.max-lag=500ms",
+        "datasource.replica.lag-check-interval=3600000",
+        "spring.jpa.properties.hibernate.javax.cache.uri=hibernate-jcache-routing.conf"
+})
+@ActiveProfiles("test")
+class ReadWriteRoutingTest {
+    @Autowired
+    ProductService productService;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    ProductCache productCache;
+
+    @Autowired
+    ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    DataSource replicaDataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        replicaLagMonitor.check();
+        replicate();
+        replicaLagMonitor.check();
+        ReplicaRouting.clear();
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        ReplicaRouting.clear();
+    }
+
+    @Test
+    void readOnlyTransactionsReadFromReplica() {
+        String id = saveProduct();
+        // Request mới: chưa ghi gì, sản phẩm chưa được chép sang replica
+        ReplicaRouting.clear();
+
+        assertTrue(productRepository.findById(id).isEmpty());
+    }
+
+    @Test
+    void readsAfterWriteInSameRequestUsePrimary() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        String id = saveProduct();
+
+        assertTrue(ReplicaRouting.hasWritten());
+        assertTrue(productRepository.findById(id).isPresent());
+    }
+
+    @Test
+    void writesOutsideRequestDoNotPinThread() {
+        // Giống thread của scheduler: không có request nào clear trạng thái định tuyến
+        // (bỏ mock request mà Spring test gắn sẵn cho thread)
+        RequestContextHolder.resetRequestAttributes();
+        String id = saveProduct();
+
+        assertFalse(ReplicaRouting.isPinnedToPrimary());
+        assertTrue(productRepository.findById(id).isEmpty());
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() throws Exception {
+        String id = saveProduct();
+        ReplicaRouting.clear();
+
+        // Replica không nhận thêm heartbeat -> trễ vượt max-lag
+        Thread.sleep(600);
+        replicaLagMonitor.check();
+
+        assertFalse(replicaLagMonitor.isReplicaUsable());
+        assertTrue(productRepository.findById(id).isPresent());
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_ADMIN")
+    void laggingReplicaCannotPutOldProductIntoCache() throws Exception {
+        String id = saveProduct();
+        replicate();
+        replicaLagMonitor.check();
+        ProductResponse updated = productService.updateProduct(id, ProductUpdateRequest.builder()
+                .productName("routing updated")
+                .description("routing test")
+                .price(BigDecimal.ONE)
+                .amount(2)
+                .build());
+        ReplicaRouting.clear();
+
+        // Replica vẫn được xem là dùng được nhưng chỉ có bản cũ
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+        assertEquals(updated.getVersion() - 1, productRepository.findById(id).orElseThrow().getVersion());
+
+        // Cả hai đường nạp cache đều đọc từ primary
+        assertEquals(updated.getVersion(), productService.getProductById(id).getVersion());
+        productCache.evict(id);
+        assertEquals(updated.getVersion(),
+                productService.getProductsByIds(List.of(id)).getItems().get(0).getVersion());
+        assertEquals(updated.getVersion(), productCache.find(id).getVersion());
+    }
+
+    @Test
+    void replicaReadsDoNotRefillSecondLevelCache() throws Exception {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        UserEntity user = userRepository.save(UserEntity.builder()
+                .userName("routing-" + suffix)
+                .email("routing-" + suffix + "@example.com")
+                .password("x")
+                .build());
+        replicate();
+        replicaLagMonitor.check();
+
+        user.setUserName("renamed-" + suffix);
+        userRepository.save(user);
+        ReplicaRouting.clear();
+        // Entry vừa ghi hết hạn/bị đẩy khỏi region users, replica vẫn còn tên cũ
+        entityManagerFactory.getCache().evict(UserEntity.class, user.getId());
+
+        // Đọc từ replica thấy bản cũ nhưng không được put vào L2...
+        assertEquals("routing-" + suffix, userRepository.findById(user.getId()).orElseThrow().getUserName());
+        assertFalse(entityManagerFactory.getCache().contains(UserEntity.class, user.getId()));
+
+        // ...nên lần đọc từ primary sau đó không bị L2 trả về bản cũ, và bản này được put như bình thường
+        assertEquals("renamed-" + suffix,
+                ReplicaRouting.onPrimary(() -> userRepository.findById(user.getId())).orElseThrow().getUserName());
+        assertTrue(entityManagerFactory.getCache().contains(UserEntity.class, user.getId()));
+
+        // Lần đọc readOnly sau đó lấy từ L2 thay vì replica
+        assertEquals("renamed-" + suffix, userRepository.findById(user.getId()).orElseThrow().getUserName());
+    }
+
+    private String saveProduct() {
+        return productRepository.save(ProductEntity.builder()
+                .productName("routing")
+                .description("routing test")
+                .price(BigDecimal.TEN)
+                .amount(1)
+                .build()).getId();
+    }
+
+    private void replicate() throws Exception {
+        Path script = Files.createTempFile("replica-snapshot", ".sql");
+        try {
+            new JdbcTemplate(primaryDataSource).execute("script to '" + script + "'");
+            JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+            replica.execute("drop all objects");
+            replica.execute("runscript from '" + script + "'");
+        } finally {
+            Files.deleteIfExists(script);
+        }
+    }
+}
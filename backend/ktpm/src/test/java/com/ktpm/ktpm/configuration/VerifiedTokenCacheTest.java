@@ -0,0 +1,119 @@
+package com.ktpm.ktpm.configuration;
+
+import com.ktpm.ktpm.dto.request.AuthRequest;
+import com.ktpm.ktpm.dto.request.LogoutRequest;
+import com.ktpm.ktpm.dto.response.AuthResponse;
+import com.ktpm.ktpm.entity.UserEntity;
+import com.ktpm.ktpm.repository.RoleRepository;
+import com.ktpm.ktpm.repository.UserRepository;
+import com.ktpm.ktpm.service.AuthService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class VerifiedTokenCacheTest {
+    static final String PASSWORD = "password";
+
+    @Autowired
+    AuthService authService;
+
+    @Autowired
+    CustomJWTDecoder customJWTDecoder;
+
+    @Autowired
+    VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    PasswordEncoder passwordEncoder;
+
+    String email;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        email = "token-" + suffix + "@example.com";
+        userRepository.save(UserEntity.builder()
+                .userName("token-" + suffix)
+                .email(email)
+                .password(passwordEncoder.encode(PASSWORD))
+                .roles(new HashSet<>(roleRepository.findAll()))
+                .build());
+    }
+
+    @Test
+    void cachedTokenIsRejectedRightAfterLogout() throws Exception {
+        AuthResponse login = login();
+        Jwt jwt = customJWTDecoder.decode(login.getToken());
+        assertSame(jwt, verifiedTokenCache.get(login.getToken()));
+
+        authService.logout(new LogoutRequest(login.getToken(), login.getRefreshToken()));
+
+        assertNull(verifiedTokenCache.get(login.getToken()));
+        assertThrows(BadJwtException.class, () -> customJWTDecoder.decode(login.getToken()));
+    }
+
+    @Test
+    void decodeStartedBeforeLogoutCannotReinsertToken() throws Exception {
+        AuthResponse login = login();
+
+        // Một decode khác lấy stamp và kiểm tra thu hồi trước khi logout...
+        long stamp = verifiedTokenCache.stamp();
+        Jwt jwt = customJWTDecoder.decode(login.getToken());
+
+        authService.logout(new LogoutRequest(login.getToken(), login.getRefreshToken()));
+
+        // ...rồi mới put sau khi logout đã invalidate
+        verifiedTokenCache.put(login.getToken(), jwt, stamp);
+        assertNull(verifiedTokenCache.get(login.getToken()));
+        assertThrows(BadJwtException.class, () -> customJWTDecoder.decode(login.getToken()));
+    }
+
+    @Test
+    void entriesExpireAtExpClaim() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100, new SimpleMeterRegistry());
+
+        Jwt expired = jwt(Instant.now().minusSeconds(1));
+        cache.put("expired", expired, cache.stamp());
+        assertNull(cache.get("expired"));
+
+        Jwt shortLived = jwt(Instant.now().plusMillis(500));
+        cache.put("short-lived", shortLived, cache.stamp());
+        assertSame(shortLived, cache.get("short-lived"));
+
+        Thread.sleep(700);
+        assertNull(cache.get("short-lived"));
+    }
+
+    private AuthResponse login() {
+        return authService.authenticate(new AuthRequest(email, PASSWORD));
+    }
+
+    private static Jwt jwt(Instant expiresAt) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "HS512")
+                .subject("user")
+                .issuedAt(expiresAt.minusSeconds(60))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.ktpm.ktpm.reactive;
+
+import com.ktpm.ktpm.configuration.VerifiedTokenCache;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.WebFilterChainProxy;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+import java.util.UUID;
+
+// Không cần context reactive (R2DBC): dựng filter chain trực tiếp trước một handler luôn trả 200
+class ReactiveSecurityConfigTest {
+    static final String SIGNER_KEY = "JWGfJPd4nzAOWfBu7rmcc6ACoygdlec3b/bD43D6/uLlf3ebn+5J29iUhpPOJ1BQ";
+
+    WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // stateless: không tra danh sách thu hồi
+        CustomReactiveJwtDecoder decoder = new CustomReactiveJwtDecoder(SIGNER_KEY, true,
+                new VerifiedTokenCache(100, meterRegistry), null, meterRegistry);
+
+        client = WebTestClient
+                .bindToWebHandler(exchange -> Mono.empty())
+                .webFilter(new WebFilterChainProxy(
+                        new ReactiveSecurityConfig().securityWebFilterChain(ServerHttpSecurity.http(), decoder)))
+                .build();
+    }
+
+    @Test
+    void onlyHealthIsPublicAndOtherActuatorEndpointsNeedAdmin() throws Exception {
+        client.get().uri("/actuator/health").exchange().expectStatus().isOk();
+        client.get().uri("/actuator/prometheus").exchange().expectStatus().isUnauthorized();
+        client.get().uri("/actuator/metrics").exchange().expectStatus().isUnauthorized();
+
+        client.get().uri("/actuator/prometheus")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token("ROLE_USER"))
+                .exchange().expectStatus().isForbidden();
+        client.get().uri("/actuator/prometheus")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token("ROLE_ADMIN"))
+                .exchange().expectStatus().isOk();
+    }
+
+    private static String token(String scope) throws Exception {
+        SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS512), new JWTClaimsSet.Builder()
+                .subject("reactive")
+                .claim("scope", scope)
+                .jwtID(UUID.randomUUID().toString())
+                .expirationTime(new Date(System.currentTimeMillis() + 60_000))
+                .build());
+        jwt.sign(new MACSigner(SIGNER_KEY.getBytes()));
+        return jwt.serialize();
+    }
+}
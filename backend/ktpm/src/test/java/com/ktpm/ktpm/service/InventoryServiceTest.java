@@ -0,0 +1,97 @@
+package com.ktpm.ktpm.service;
+
+import com.ktpm.ktpm.dto.request.InventoryRequest;
+import com.ktpm.ktpm.entity.ProductEntity;
+import com.ktpm.ktpm.exception.AppException;
+import com.ktpm.ktpm.exception.ErrorType;
+import com.ktpm.ktpm.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class InventoryServiceTest {
+    static final int STOCK = 100;
+    static final int THREADS = 16;
+    static final int ATTEMPTS_PER_THREAD = 20;
+
+    @Autowired
+    InventoryService inventoryService;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        String id = createProduct(STOCK);
+        InventoryRequest one = new InventoryRequest(1);
+
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger outOfStock = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        try {
+                            inventoryService.reserve(id, one);
+                            reserved.incrementAndGet();
+                        } catch (AppException e) {
+                            assertEquals(ErrorType.OUT_OF_STOCK, e.getErrorType());
+                            outOfStock.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures)
+                future.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(STOCK, reserved.get());
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD - STOCK, outOfStock.get());
+        assertEquals(0, productRepository.findAmountById(id));
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_ADMIN")
+    void reserveMoreThanStockFailsAndReleaseRestores() {
+        String id = createProduct(5);
+
+        AppException e = assertThrows(AppException.class, () -> inventoryService.reserve(id, new InventoryRequest(6)));
+        assertEquals(ErrorType.OUT_OF_STOCK, e.getErrorType());
+
+        assertEquals(2, inventoryService.reserve(id, new InventoryRequest(3)).getAmount());
+        assertEquals(5, inventoryService.release(id, new InventoryRequest(3)).getAmount());
+    }
+
+    private String createProduct(int amount) {
+        return productRepository.save(ProductEntity.builder()
+                .productName("Hot product")
+                .description("Flash sale")
+                .price(BigDecimal.TEN)
+                .amount(amount)
+                .build()).getId();
+    }
+}
@@ -0,0 +1,190 @@
+package com.ktpm.ktpm.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktpm.ktpm.event.ProductChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Không cần Spring context: feed chỉ phụ thuộc ObjectMapper và MeterRegistry
+class ProductChangeFeedTest {
+    static final int RING_SIZE = 4;
+    static final int SUBSCRIBER_BUFFER = 3;
+
+    SimpleMeterRegistry meterRegistry;
+    ProductChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        feed = new ProductChangeFeed(new ObjectMapper(), meterRegistry, RING_SIZE, SUBSCRIBER_BUFFER, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.shutdown();
+    }
+
+    @Test
+    void resumeFromRetainedLastEventIdReplaysOnlyLaterEvents() throws Exception {
+        RecordingEmitter first = new RecordingEmitter(null);
+        feed.subscribe(null, first);
+        publish("p1", "p2", "p3");
+        awaitEvents(first, 3);
+
+        RecordingEmitter resumed = new RecordingEmitter(null);
+        feed.subscribe(first.id(0), resumed);
+        awaitEvents(resumed, 2);
+
+        assertEquals(List.of(first.id(1), first.id(2)), List.of(resumed.id(0), resumed.id(1)));
+        assertTrue(resumed.events.get(0).contains("p2"));
+        assertTrue(resumed.events.stream().noneMatch(event -> event.contains("event:reset")));
+
+        // Đã nhận hết -> không có gì để replay, chỉ nhận event mới
+        RecordingEmitter upToDate = new RecordingEmitter(null);
+        feed.subscribe(first.id(2), upToDate);
+        publish("p4");
+        awaitEvents(upToDate, 1);
+        assertTrue(upToDate.events.get(0).contains("p4"));
+    }
+
+    @Test
+    void resumeFromEvictedOrUnknownIdTellsClientToResync() throws Exception {
+        RecordingEmitter first = new RecordingEmitter(null);
+        feed.subscribe(null, first);
+        // Chờ từng event để hàng đợi của client này không bị đầy
+        for (int i = 1; i <= 6; i++) {
+            publish("p" + i);
+            awaitEvents(first, i);
+        }
+
+        // Ring chỉ giữ 4 event gần nhất, event 2 đã bị ghi đè
+        RecordingEmitter evicted = new RecordingEmitter(null);
+        feed.subscribe(first.id(0), evicted);
+        awaitEvents(evicted, 1);
+        assertTrue(evicted.events.get(0).contains("event:reset"));
+
+        // Id của lần chạy trước
+        RecordingEmitter otherBoot = new RecordingEmitter(null);
+        feed.subscribe("0-5", otherBoot);
+        awaitEvents(otherBoot, 1);
+        assertTrue(otherBoot.events.get(0).contains("event:reset"));
+
+        // Sau reset vẫn nhận event mới như bình thường
+        publish("p7");
+        awaitEvents(evicted, 2);
+        assertTrue(evicted.events.get(1).contains("p7"));
+    }
+
+    @Test
+    void queueOverflowDisconnectsOnlySlowSubscriber() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        RecordingEmitter fast = new RecordingEmitter(null);
+        feed.subscribe(null, slow);
+        feed.subscribe(null, fast);
+
+        try {
+            // Event 1 chặn trong send của client chậm, các event sau nằm trong hàng đợi của nó
+            publish("p1");
+            assertTrue(slow.sending.await(5, TimeUnit.SECONDS));
+            for (int i = 2; i <= SUBSCRIBER_BUFFER + 1; i++) {
+                publish("p" + i);
+                awaitEvents(fast, i);
+            }
+            assertFalse(slow.completed);
+
+            // Hàng đợi đầy -> chỉ client chậm bị ngắt
+            publish("p" + (SUBSCRIBER_BUFFER + 2));
+            awaitEvents(fast, SUBSCRIBER_BUFFER + 2);
+
+            assertTrue(slow.completed);
+            assertFalse(fast.completed);
+            assertEquals(1, meterRegistry.counter("product.feed.disconnected", "reason", "slow_consumer").count());
+            assertEquals(1, meterRegistry.get("product.feed.subscribers").gauge().value());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void importedChunkCarriesItsProductIds() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        feed.subscribe(null, emitter);
+
+        feed.onProductChanged(ProductChangedEvent.imported(List.of("p1", "p2", "p3")));
+        awaitEvents(emitter, 1);
+
+        String event = emitter.events.get(0);
+        assertTrue(event.contains("\"type\":\"IMPORTED\""));
+        assertTrue(event.contains("\"productIds\":[\"p1\",\"p2\",\"p3\"]"));
+        assertFalse(event.contains("\"productId\":"));
+    }
+
+    private void publish(String... productIds) {
+        for (String productId : productIds)
+            feed.onProductChanged(ProductChangedEvent.deleted(productId));
+    }
+
+    private static void awaitEvents(RecordingEmitter emitter, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (emitter.events.size() < count) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for " + count + " events");
+            Thread.sleep(10);
+        }
+    }
+
+    // Ghi lại nội dung từng event thay vì ghi ra response; release != null thì send chờ tới khi được thả
+    static class RecordingEmitter extends SseEmitter {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release;
+        volatile boolean completed;
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(part -> event.append(part.getData()));
+            events.add(event.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+            super.complete();
+        }
+
+        String id(int index) {
+            return events.get(index).lines()
+                    .filter(line -> line.startsWith("id:"))
+                    .map(line -> line.substring(3))
+                    .findFirst()
+                    .orElseThrow();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.ktpm.ktpm.service;
+
+import com.ktpm.ktpm.dto.request.ProductCreationRequest;
+import com.ktpm.ktpm.dto.request.ProductUpdateRequest;
+import com.ktpm.ktpm.dto.response.ProductChangeResponse;
+import com.ktpm.ktpm.dto.response.ProductSyncResponse;
+import com.ktpm.ktpm.entity.ChangeLogHorizon;
+import com.ktpm.ktpm.exception.AppException;
+import com.ktpm.ktpm.exception.ErrorType;
+import com.ktpm.ktpm.repository.ChangeLogHorizonRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Thay đổi mới ghi chưa qua settle window: đẩy changed_at về quá khứ thay vì chờ
+@SpringBootTest
+@ActiveProfiles("test")
+@WithMockUser(authorities = "ROLE_ADMIN")
+class ProductChangeLogTest {
+    @Autowired
+    ProductChangeLog productChangeLog;
+
+    @Autowired
+    ProductService productService;
+
+    @Autowired
+    ChangeLogHorizonRepository changeLogHorizonRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    long since;
+
+    @BeforeEach
+    void setUp() {
+        since = jdbcTemplate.queryForObject("select coalesce(max(seq), 0) from product_change", Long.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        changeLogHorizonRepository.deleteById(ProductChangeLog.HORIZON);
+    }
+
+    @Test
+    void changesArePagedInSeqOrderAndOnlyAfterSettleWindow() {
+        String first = createProduct("first");
+        String second = createProduct("second");
+        String third = createProduct("third");
+        productService.updateProduct(first, ProductUpdateRequest.builder()
+                .productName("first updated")
+                .description("change log test")
+                .price(BigDecimal.ONE)
+                .amount(1)
+                .build());
+        productService.deleteProduct(second);
+        age(1);
+
+        // Chưa qua settle window -> chưa được trả về
+        String unsettled = createProduct("unsettled");
+
+        Map<String, ProductChangeResponse> latest = new HashMap<>();
+        List<Long> seqs = new ArrayList<>();
+        long cursor = since;
+        int pages = 0;
+        ProductSyncResponse page;
+        do {
+            page = productChangeLog.getChanges(cursor, 2);
+            assertTrue(page.getChanges().size() <= 2);
+            for (ProductChangeResponse change : page.getChanges()) {
+                seqs.add(change.getSeq());
+                latest.put(change.getProductId(), change);
+            }
+            cursor = page.getLastSeq();
+            pages++;
+        } while (page.isHasMore());
+
+        assertTrue(pages > 1);
+        assertEquals(seqs.stream().sorted().distinct().toList(), seqs);
+        assertEquals(3, latest.size());
+        assertFalse(latest.containsKey(unsettled));
+        assertEquals("first updated", latest.get(first).getProduct().getProductName());
+        assertEquals("third", latest.get(third).getProduct().getProductName());
+
+        // Tombstone: sản phẩm đã xóa vẫn được báo, không kèm dữ liệu
+        assertEquals("DELETE", latest.get(second).getType());
+        assertNull(latest.get(second).getProduct());
+
+        // Đã hết thay đổi -> lastSeq giữ nguyên để lần sau hỏi tiếp từ đó
+        assertEquals(cursor, productChangeLog.getChanges(cursor, 2).getLastSeq());
+    }
+
+    @Test
+    void compactionKeepsLatestChangeAndPurgedTombstonesExpireOlderCursors() {
+        String kept = createProduct("kept");
+        productService.updateProduct(kept, ProductUpdateRequest.builder()
+                .productName("kept updated")
+                .description("change log test")
+                .price(BigDecimal.ONE)
+                .amount(1)
+                .build());
+        String deleted = createProduct("deleted");
+        productService.deleteProduct(deleted);
+        // Tombstone cũ hơn tombstone-retention (30 ngày)
+        age(31 * 24 * 60);
+
+        productChangeLog.compact();
+
+        assertEquals(1, countChanges(kept));
+        assertEquals(0, countChanges(deleted));
+        long horizon = changeLogHorizonRepository.findById(ProductChangeLog.HORIZON).orElseThrow().getPurgedThroughSeq();
+        assertTrue(horizon > since);
+
+        AppException expired = assertThrows(AppException.class, () -> productChangeLog.getChanges(since, 10));
+        assertEquals(ErrorType.SYNC_EXPIRED, expired.getErrorType());
+        // Mốc từ đầu (0) và mốc sau horizon vẫn đồng bộ được
+        assertDoesNotThrow(() -> productChangeLog.getChanges(0, 10));
+        assertDoesNotThrow(() -> productChangeLog.getChanges(horizon, 10));
+    }
+
+    @Test
+    void horizonWrittenByAnotherInstanceIsHonoured() {
+        String id = createProduct("horizon");
+        age(1);
+        assertEquals(id, productChangeLog.getChanges(since, 10).getChanges().get(0).getProductId());
+
+        // Compaction chạy ở instance khác chỉ để lại mốc trong DB
+        changeLogHorizonRepository.save(new ChangeLogHorizon(ProductChangeLog.HORIZON, since + 1));
+
+        AppException expired = assertThrows(AppException.class, () -> productChangeLog.getChanges(since, 10));
+        assertEquals(ErrorType.SYNC_EXPIRED, expired.getErrorType());
+
+        AppException negative = assertThrows(AppException.class, () -> productChangeLog.getChanges(-1, 10));
+        assertEquals(ErrorType.BAD_REQUEST, negative.getErrorType());
+    }
+
+    private String createProduct(String name) {
+        return productService.createProduct(ProductCreationRequest.builder()
+                .productName(name)
+                .description("change log test")
+                .price(BigDecimal.TEN)
+                .amount(1)
+                .build()).getId();
+    }
+
+    // Đẩy các thay đổi của test về quá khứ
+    private void age(int minutes) {
+        jdbcTemplate.update("update product_change set changed_at = timestampadd(minute, ?, changed_at) where seq > ?",
+                -minutes, since);
+    }
+
+    private int countChanges(String productId) {
+        return jdbcTemplate.queryForObject("select count(*) from product_change where product_id = ?",
+                Integer.class, productId);
+    }
+}
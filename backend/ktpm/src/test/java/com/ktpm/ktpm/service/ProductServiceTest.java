@@ -0,0 +1,235 @@
+package com.ktpm.ktpm.service;
+
+import com.ktpm.ktpm.configuration.JdbcRequestMetrics;
+import com.ktpm.ktpm.configuration.ProductCache;
+import com.ktpm.ktpm.dto.request.ProductPageRequest;
+import com.ktpm.ktpm.dto.request.ProductUpdateRequest;
+import com.ktpm.ktpm.dto.response.CursorPageResponse;
+import com.ktpm.ktpm.dto.response.ProductBatchResponse;
+import com.ktpm.ktpm.dto.response.ProductPatchResponse;
+import com.ktpm.ktpm.dto.response.ProductResponse;
+import com.ktpm.ktpm.entity.ProductEntity;
+import com.ktpm.ktpm.exception.AppException;
+import com.ktpm.ktpm.exception.ErrorType;
+import com.ktpm.ktpm.mapper.ProductionMapper;
+import com.ktpm.ktpm.repository.ProductRepository;
+import com.ktpm.ktpm.util.CursorCodec;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@WithMockUser(authorities = "ROLE_ADMIN")
+class ProductServiceTest {
+    @Autowired
+    ProductService productService;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    ProductionMapper productionMapper;
+
+    @Autowired
+    ProductCache productCache;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void patchUpdatesOnlyGivenFieldsInOneStatement() {
+        ProductEntity product = saveProduct();
+
+        JdbcRequestMetrics.start();
+        ProductPatchResponse response = productService.patchProduct(product.getId(), product.getVersion(),
+                ProductUpdateRequest.builder().price(new BigDecimal("12.50")).build());
+        assertEquals(1, JdbcRequestMetrics.stop().getStatements());
+
+        assertEquals(product.getVersion() + 1, response.getVersion());
+        ProductEntity saved = productRepository.findById(product.getId()).orElseThrow();
+        assertEquals(0, new BigDecimal("12.50").compareTo(saved.getPrice()));
+        assertEquals("patch", saved.getProductName());
+        assertEquals(7, saved.getAmount());
+        assertEquals(response.getVersion(), saved.getVersion());
+    }
+
+    @Test
+    void patchWithStaleVersionConflictsAndMissingProductIsNotFound() {
+        ProductEntity product = saveProduct();
+        ProductUpdateRequest first = ProductUpdateRequest.builder().productName("first").build();
+        ProductUpdateRequest second = ProductUpdateRequest.builder().productName("second").build();
+
+        productService.patchProduct(product.getId(), product.getVersion(), first);
+        AppException conflict = assertThrows(AppException.class,
+                () -> productService.patchProduct(product.getId(), product.getVersion(), second));
+        assertEquals(ErrorType.VERSION_CONFLICT, conflict.getErrorType());
+        assertEquals("first", productRepository.findById(product.getId()).orElseThrow().getProductName());
+
+        AppException notFound = assertThrows(AppException.class,
+                () -> productService.patchProduct("missing", 0, second));
+        assertEquals(ErrorType.NOT_FOUND, notFound.getErrorType());
+
+        AppException invalid = assertThrows(AppException.class,
+                () -> productService.patchProduct(product.getId(), product.getVersion() + 1,
+                        ProductUpdateRequest.builder().amount(-1).build()));
+        assertEquals(ErrorType.BAD_REQUEST, invalid.getErrorType());
+    }
+
+    @Test
+    void batchLookupKeepsOrderReportsMissingAndUsesOneQuery() {
+        String first = saveProduct().getId();
+        String second = saveProduct().getId();
+        String third = saveProduct().getId();
+        productService.getProductById(second);
+
+        // Id viết hoa vẫn là cùng sản phẩm (lấy từ cache, không trùng trong kết quả)
+        JdbcRequestMetrics.start();
+        ProductBatchResponse response = productService.getProductsByIds(
+                List.of(third, "missing", first, second.toUpperCase(), third, second));
+        assertEquals(1, JdbcRequestMetrics.stop().getStatements());
+
+        assertEquals(List.of(third, first, second),
+                response.getItems().stream().map(ProductResponse::getId).toList());
+        assertEquals(List.of("missing"), response.getMissing());
+
+        // Lần sau lấy hết từ cache
+        JdbcRequestMetrics.start();
+        productService.getProductsByIds(List.of(first, second, third.toUpperCase()));
+        assertEquals(0, JdbcRequestMetrics.stop().getStatements());
+
+        // Giới hạn tính trên danh sách gửi lên, kể cả id trùng
+        AppException tooMany = assertThrows(AppException.class,
+                () -> productService.getProductsByIds(Collections.nCopies(101, first)));
+        assertEquals(ErrorType.BAD_REQUEST, tooMany.getErrorType());
+    }
+
+    @Test
+    void loadStartedBeforeUpdateCannotPutOldValueBack() {
+        ProductEntity product = saveProduct();
+
+        // Lần nạp lấy stamp và đọc DB trước khi cập nhật commit...
+        long stamp = productCache.stamp();
+        ProductResponse stale = productionMapper.toResponse(productRepository.findById(product.getId()).orElseThrow());
+
+        ProductResponse updated = productService.updateProduct(product.getId(), ProductUpdateRequest.builder()
+                .productName("updated")
+                .description("updated product")
+                .price(BigDecimal.ONE)
+                .amount(3)
+                .build());
+
+        // ...rồi mới put, sau khi evict của lần cập nhật đã chạy
+        productCache.put(stale, stamp);
+        assertNull(productCache.find(product.getId()));
+        assertEquals(updated.getVersion(), productService.getProductById(product.getId()).getVersion());
+
+        // Bản có version thấp hơn không ghi đè bản mới hơn đang nằm trong cache
+        productCache.put(stale, productCache.stamp());
+        assertEquals("updated", productCache.find(product.getId()).getProductName());
+        assertEquals(updated.getVersion(), productService.getProductById(product.getId()).getVersion());
+    }
+
+    @Test
+    void pagesOverEqualCreatedAtNeitherRepeatNorSkipRows() {
+        String prefix = "page-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++)
+            ids.add(saveProduct(prefix + i, BigDecimal.TEN).getId());
+        // Cùng created_at -> thứ tự chỉ còn phụ thuộc id
+        jdbcTemplate.update("update product set created_at = ? where product_name like ?",
+                LocalDateTime.of(2024, 1, 1, 0, 0), prefix + "%");
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        CursorPageResponse<ProductResponse> page;
+        do {
+            page = productService.getProducts(ProductPageRequest.builder()
+                    .cursor(cursor)
+                    .size(2)
+                    .name(prefix)
+                    .build());
+            assertTrue(page.getItems().size() <= 2);
+            page.getItems().forEach(product -> seen.add(product.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (page.isHasNext());
+
+        assertEquals(4, pages);
+        assertNull(cursor);
+        assertEquals(ids.stream().sorted().toList(), seen);
+    }
+
+    @Test
+    void filtersApplyTogetherAndNamePrefixIsMatchedLiterally() {
+        String prefix = "filter-" + UUID.randomUUID().toString().substring(0, 8);
+        String five = saveProduct(prefix + "_a", new BigDecimal("5")).getId();
+        String ten = saveProduct(prefix + "_b", new BigDecimal("10")).getId();
+        String fifteen = saveProduct(prefix + "_c", new BigDecimal("15")).getId();
+        saveProduct(prefix + "xd", new BigDecimal("20"));
+
+        assertEquals(Set.of(ten, fifteen), productIds(ProductPageRequest.builder()
+                .name(prefix)
+                .minPrice(BigDecimal.TEN)
+                .maxPrice(new BigDecimal("15"))
+                .build()));
+
+        // '_' là ký tự thường, không phải wildcard của LIKE
+        assertEquals(Set.of(five, ten, fifteen), productIds(ProductPageRequest.builder()
+                .name(prefix + "_")
+                .build()));
+        assertEquals(Set.of(), productIds(ProductPageRequest.builder()
+                .name(prefix + "%")
+                .build()));
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() {
+        for (String cursor : List.of(
+                "not base64!",
+                CursorCodec.encode("only-one-part"),
+                CursorCodec.encode("not-a-date", UUID.randomUUID().toString()),
+                CursorCodec.encode(LocalDateTime.now().toString(), "not-a-uuid"))) {
+            AppException exception = assertThrows(AppException.class,
+                    () -> productService.getProducts(ProductPageRequest.builder().cursor(cursor).build()));
+            assertEquals(ErrorType.INVALID_CURSOR, exception.getErrorType());
+        }
+    }
+
+    private Set<String> productIds(ProductPageRequest request) {
+        return productService.getProducts(request).getItems().stream().map(ProductResponse::getId).collect(Collectors.toSet());
+    }
+
+    private ProductEntity saveProduct(String name, BigDecimal price) {
+        return productRepository.save(ProductEntity.builder()
+                .productName(name)
+                .description("page test")
+                .price(price)
+                .amount(1)
+                .build());
+    }
+
+    private ProductEntity saveProduct() {
+        return productRepository.save(ProductEntity.builder()
+                .productName("patch")
+                .description("patch test")
+                .price(BigDecimal.TEN)
+                .amount(7)
+                .build());
+    }
+}
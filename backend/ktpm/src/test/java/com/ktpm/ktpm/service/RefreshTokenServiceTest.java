@@ -0,0 +1,197 @@
+package com.ktpm.ktpm.service;
+
+import com.ktpm.ktpm.configuration.CustomJWTDecoder;
+import com.ktpm.ktpm.dto.request.LogoutRequest;
+import com.ktpm.ktpm.entity.UserEntity;
+import com.ktpm.ktpm.exception.AppException;
+import com.ktpm.ktpm.exception.ErrorType;
+import com.ktpm.ktpm.repository.RoleRepository;
+import com.ktpm.ktpm.repository.UserRepository;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RefreshTokenServiceTest {
+    @Autowired
+    RefreshTokenService refreshTokenService;
+
+    @Autowired
+    AuthService authService;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    CustomJWTDecoder customJWTDecoder;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rotationIssuesNewTokenAndUsedTokenCannotBeRotatedAgain() {
+        String userId = UUID.randomUUID().toString();
+        String token = refreshTokenService.issue(userId);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(token);
+        assertEquals(userId, rotation.userId());
+        assertNotEquals(token, rotation.refreshToken());
+
+        RefreshTokenService.Rotation next = refreshTokenService.rotate(rotation.refreshToken());
+        assertEquals(userId, next.userId());
+
+        assertUnauthorized(() -> refreshTokenService.rotate("unknown"));
+        assertUnauthorized(() -> refreshTokenService.rotate(" "));
+    }
+
+    @Test
+    void reuseOfUsedTokenRevokesWholeFamily() {
+        String userId = UUID.randomUUID().toString();
+        String first = refreshTokenService.issue(userId);
+        String second = refreshTokenService.rotate(first).refreshToken();
+        String newest = refreshTokenService.rotate(second).refreshToken();
+        // Family khác của cùng user (đăng nhập trên thiết bị khác) không bị ảnh hưởng
+        String otherFamily = refreshTokenService.issue(userId);
+        double reuses = meterRegistry.counter("auth.refresh.reuse").count();
+
+        assertUnauthorized(() -> refreshTokenService.rotate(first));
+
+        assertEquals(reuses + 1, meterRegistry.counter("auth.refresh.reuse").count());
+        assertUnauthorized(() -> refreshTokenService.rotate(newest));
+        assertEquals(userId, refreshTokenService.rotate(otherFamily).userId());
+    }
+
+    @Test
+    void concurrentRotationsOfSameTokenHaveExactlyOneWinner() throws Exception {
+        int threads = 8;
+        String token = refreshTokenService.issue(UUID.randomUUID().toString());
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        refreshTokenService.rotate(token);
+                        return true;
+                    } catch (AppException e) {
+                        assertEquals(ErrorType.UNAUTHORIZED, e.getErrorType());
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int winners = 0;
+            for (Future<Boolean> future : futures) {
+                if (future.get(30, TimeUnit.SECONDS))
+                    winners++;
+            }
+            assertEquals(1, winners);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String userId = UUID.randomUUID().toString();
+        String token = refreshTokenService.issue(userId);
+        jdbcTemplate.update("update refresh_token set expiry_time = ? where user_id = ?",
+                new Date(System.currentTimeMillis() - 1000), userId);
+
+        assertUnauthorized(() -> refreshTokenService.rotate(token));
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_ADMIN")
+    void logoutAndUserDeletionRevokeRefreshTokens() throws Exception {
+        String loggedOut = refreshTokenService.issue(UUID.randomUUID().toString());
+        authService.logout(new LogoutRequest(null, loggedOut));
+        assertUnauthorized(() -> refreshTokenService.rotate(loggedOut));
+
+        UserEntity user = saveUser();
+        String first = refreshTokenService.issue(user.getId());
+        String second = refreshTokenService.issue(user.getId());
+        userService.deleteUser(user.getId());
+
+        assertUnauthorized(() -> refreshTokenService.rotate(first));
+        assertUnauthorized(() -> refreshTokenService.rotate(second));
+    }
+
+    @Test
+    void statelessDecoderSkipsRevocationLookup() throws Exception {
+        UserEntity user = saveUser();
+
+        String stateful = authService.generateToken(user);
+        revoke(stateful);
+        assertThrows(BadJwtException.class, () -> customJWTDecoder.decode(stateful));
+
+        authService.STATELESS = true;
+        try {
+            // Token đã nằm trong danh sách thu hồi nhưng decoder không tra danh sách đó
+            String stateless = authService.generateToken(user);
+            revoke(stateless);
+            assertEquals(user.getUserName(), customJWTDecoder.decode(stateless).getSubject());
+        } finally {
+            authService.STATELESS = false;
+        }
+    }
+
+    // Đọc claim trực tiếp, không qua decoder để token không vào VerifiedTokenCache
+    private void revoke(String token) throws ParseException {
+        JWTClaimsSet claims = SignedJWT.parse(token).getJWTClaimsSet();
+        tokenRevocationService.revoke(claims.getJWTID(), claims.getExpirationTime());
+    }
+
+    private UserEntity saveUser() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.save(UserEntity.builder()
+                .userName("refresh-" + suffix)
+                .email("refresh-" + suffix + "@example.com")
+                .password("x")
+                .roles(new HashSet<>(roleRepository.findAll()))
+                .build());
+    }
+
+    private static void assertUnauthorized(Runnable rotation) {
+        AppException exception = assertThrows(AppException.class, rotation::run);
+        assertEquals(ErrorType.UNAUTHORIZED, exception.getErrorType());
+    }
+}
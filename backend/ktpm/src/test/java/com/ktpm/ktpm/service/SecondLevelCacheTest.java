@@ -0,0 +1,165 @@
+package com.ktpm.ktpm.service;
+
+import com.ktpm.ktpm.configuration.JdbcRequestMetrics;
+import com.ktpm.ktpm.configuration.ProductCache;
+import com.ktpm.ktpm.dto.request.InventoryRequest;
+import com.ktpm.ktpm.dto.request.ProductUpdateRequest;
+import com.ktpm.ktpm.dto.request.UserCreationRequest;
+import com.ktpm.ktpm.entity.ProductEntity;
+import com.ktpm.ktpm.entity.RoleEntity;
+import com.ktpm.ktpm.entity.UserEntity;
+import com.ktpm.ktpm.repository.ProductRepository;
+import com.ktpm.ktpm.repository.RoleRepository;
+import com.ktpm.ktpm.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Mỗi lần gọi repository là một session mới -> đọc lại đi qua second-level cache chứ không phải persistence context
+@SpringBootTest
+@ActiveProfiles("test")
+@WithMockUser(authorities = "ROLE_ADMIN")
+class SecondLevelCacheTest {
+    @Autowired
+    ProductService productService;
+
+    @Autowired
+    ProductCache productCache;
+
+    @Autowired
+    InventoryService inventoryService;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void productsStayOutOfSecondLevelCacheAndReadsByIdUseProductCache() {
+        String id = saveProduct(5);
+        productRepository.findById(id).orElseThrow();
+        assertFalse(entityManagerFactory.getCache().contains(ProductEntity.class, id));
+
+        productService.getProductById(id);
+        JdbcRequestMetrics.start();
+        productService.getProductById(id);
+        assertEquals(0, JdbcRequestMetrics.stop().getStatements());
+
+        // UPDATE HQL của đặt hàng chỉ evict đúng sản phẩm đó khỏi ProductCache
+        String other = saveProduct(5);
+        productService.getProductById(other);
+        inventoryService.reserve(id, new InventoryRequest(1));
+        assertNull(productCache.find(id));
+        assertNotNull(productCache.find(other));
+    }
+
+    @Test
+    void productWritesThroughServicesAreNeverReadStale() {
+        String id = saveProduct(5);
+        productRepository.findById(id).orElseThrow();
+
+        productService.updateProduct(id, ProductUpdateRequest.builder()
+                .productName("cache updated")
+                .description("updated description")
+                .price(BigDecimal.ONE)
+                .amount(5)
+                .build());
+        assertEquals("cache updated", productRepository.findById(id).orElseThrow().getProductName());
+
+        // UPDATE HQL không đi qua entity
+        inventoryService.reserve(id, new InventoryRequest(2));
+        assertEquals(3, productRepository.findById(id).orElseThrow().getAmount());
+
+        productService.deleteProduct(id);
+        assertTrue(productRepository.findById(id).isEmpty());
+    }
+
+    @Test
+    void findByEmailUsesQueryCacheAndSeesUpdates() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        String email = "cache-" + suffix + "@example.com";
+        String id = userRepository.save(UserEntity.builder()
+                .userName("cache-" + suffix)
+                .email(email)
+                .password("x")
+                .roles(new HashSet<>(roleRepository.findAll()))
+                .build()).getId();
+
+        statistics.clear();
+        userRepository.findByEmail(email).orElseThrow();
+        userRepository.findByEmail(email).orElseThrow();
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        // Collection roles cũng được cache: lần nạp thứ hai không chạm DB
+        Set<String> roles = roleNames(id);
+        JdbcRequestMetrics.start();
+        assertEquals(roles, roleNames(id));
+        assertEquals(0, JdbcRequestMetrics.stop().getStatements());
+
+        String newEmail = "renamed-" + suffix + "@example.com";
+        userService.updateUser(id, UserCreationRequest.builder()
+                .username("renamed-" + suffix)
+                .email(newEmail)
+                .build());
+
+        assertTrue(userRepository.findByEmail(email).isEmpty());
+        assertEquals("renamed-" + suffix, userRepository.findByEmail(newEmail).orElseThrow().getUserName());
+        assertEquals(id, userRepository.findByUserName("renamed-" + suffix).orElseThrow().getId());
+
+        userService.deleteUser(id);
+        assertTrue(userRepository.findByEmail(newEmail).isEmpty());
+        assertTrue(userRepository.findById(id).isEmpty());
+    }
+
+    private Set<String> roleNames(String userId) {
+        return transactionTemplate.execute(status -> {
+            Set<String> names = new HashSet<>();
+            for (RoleEntity role : userRepository.findById(userId).orElseThrow().getRoles())
+                names.add(role.getRoleName());
+            return names;
+        });
+    }
+
+    private String saveProduct(int amount) {
+        return productRepository.save(ProductEntity.builder()
+                .productName("cache")
+                .description("second-level cache test")
+                .price(BigDecimal.TEN)
+                .amount(amount)
+                .build()).getId();
+    }
+}
@@ -0,0 +1,143 @@
+package com.ktpm.ktpm.service;
+
+import com.ktpm.ktpm.configuration.JdbcRequestMetrics;
+import com.ktpm.ktpm.dto.request.UserCreationRequest;
+import com.ktpm.ktpm.dto.request.UserPageRequest;
+import com.ktpm.ktpm.dto.response.CursorPageResponse;
+import com.ktpm.ktpm.dto.response.UserResponse;
+import com.ktpm.ktpm.entity.RoleEntity;
+import com.ktpm.ktpm.entity.UserEntity;
+import com.ktpm.ktpm.exception.AppException;
+import com.ktpm.ktpm.exception.ErrorType;
+import com.ktpm.ktpm.repository.RoleRepository;
+import com.ktpm.ktpm.repository.UserRepository;
+import com.ktpm.ktpm.util.CursorCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@WithMockUser(authorities = "ROLE_ADMIN")
+// Mỗi test chạy trong transaction rollback trên đúng USERS dòng, không phụ thuộc dữ liệu của các test khác
+@Transactional
+class UserServiceTest {
+    static final int USERS = 30;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    PasswordEncoder passwordEncoder;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from user_roles");
+        jdbcTemplate.update("delete from users");
+
+        Set<RoleEntity> roles = new HashSet<>(roleRepository.findAll());
+        List<UserEntity> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(UserEntity.builder()
+                    .userName("user" + i)
+                    .email("user" + i + "@example.com")
+                    .password("x")
+                    .roles(roles)
+                    .build());
+        }
+        // Flush trước để lệnh insert không bị đếm vào số statement của getUsers
+        userRepository.saveAllAndFlush(users);
+    }
+
+    @Test
+    void getUsersIssuesSameNumberOfStatementsForAnyPageSize() {
+        for (int size : new int[]{1, 5, USERS}) {
+            JdbcRequestMetrics.start();
+            CursorPageResponse<UserResponse> page = userService.getUsers(UserPageRequest.builder().size(size).build());
+            int statements = JdbcRequestMetrics.stop().getStatements();
+
+            assertEquals(size, page.getItems().size());
+            assertEquals(2, statements, "page size " + size);
+        }
+    }
+
+    @Test
+    void getUsersWalksAllPagesWithRoles() {
+        Set<String> ids = new HashSet<>();
+        String cursor = null;
+        do {
+            CursorPageResponse<UserResponse> page = userService.getUsers(UserPageRequest.builder()
+                    .cursor(cursor)
+                    .size(7)
+                    .build());
+            for (UserResponse user : page.getItems()) {
+                assertTrue(ids.add(user.getId()));
+                assertNotNull(user.getUsername());
+                assertFalse(user.getRoles().isEmpty());
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(USERS, ids.size());
+    }
+
+    @Test
+    void invalidCursorIsBadRequest() {
+        for (String cursor : List.of(
+                "not base64!",
+                CursorCodec.encode("a", "b"),
+                CursorCodec.encode("not-a-uuid"))) {
+            AppException exception = assertThrows(AppException.class,
+                    () -> userService.getUsers(UserPageRequest.builder().cursor(cursor).build()));
+            assertEquals(ErrorType.INVALID_CURSOR, exception.getErrorType());
+        }
+    }
+
+    @Test
+    void updateUserHashesNewPasswordAndKeepsRoles() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        UserEntity user = userRepository.save(UserEntity.builder()
+                .userName("update-" + suffix)
+                .email("update-" + suffix + "@example.com")
+                .password(passwordEncoder.encode("old-password"))
+                .roles(new HashSet<>(roleRepository.findAll()))
+                .build());
+
+        UserResponse response = userService.updateUser(user.getId(), UserCreationRequest.builder()
+                .username("updated-" + suffix)
+                .email("updated-" + suffix + "@example.com")
+                .password("new-password")
+                .build());
+
+        assertEquals("updated-" + suffix, response.getUsername());
+        assertFalse(response.getRoles().isEmpty());
+        assertTrue(passwordEncoder.matches("new-password", userRepository.findById(user.getId()).orElseThrow().getPassword()));
+
+        AppException notFound = assertThrows(AppException.class, () -> userService.updateUser(UUID.randomUUID().toString(),
+                UserCreationRequest.builder().username("missing").email("missing@example.com").build()));
+        assertEquals(ErrorType.NOT_FOUND, notFound.getErrorType());
+    }
+}
@@ -8,6 +8,8 @@ const ProductList = () => {
   const navigate = useNavigate();
   const [products, setProducts] = useState([]);
   const [loading, setLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [error, setError] = useState("");
   const [showForm, setShowForm] = useState(false);
   const [editingProduct, setEditingProduct] = useState(null);
@@ -33,7 +35,8 @@ const ProductList = () => {
     try {
       setLoading(true);
       const data = await getAllProducts();
-      setProducts(data.data);
+      setProducts(data.data.items);
+      setNextCursor(data.data.nextCursor);
       setError("");
     } catch (err) {
       setError("Không thể tải danh sách sản phẩm");
@@ -43,6 +46,22 @@ const ProductList = () => {
     }
   };
 
+  // Trang tiếp theo theo nextCursor, nối vào danh sách đang có
+  const loadMore = async () => {
+    try {
+      setLoadingMore(true);
+      const data = await getAllProducts(nextCursor);
+      setProducts((current) => [...current, ...data.data.items]);
+      setNextCursor(data.data.nextCursor);
+      setError("");
+    } catch (err) {
+      setError("Không thể tải thêm sản phẩm");
+      console.error(err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handleDelete = async (id) => {
     if (window.confirm("Bạn có chắc muốn xóa sản phẩm này?")) {
       try {
@@ -215,6 +234,19 @@ const ProductList = () => {
           </div>
         )}
 
+        {!loading && nextCursor && (
+          <div className="load-more">
+            <button
+              className="btn-add"
+              onClick={loadMore}
+              disabled={loadingMore}
+              data-testid="load-more-button"
+            >
+              {loadingMore ? "Đang tải..." : "Tải thêm"}
+            </button>
+          </div>
+        )}
+
         {showForm && (
           <ProductForm
             product={editingProduct}
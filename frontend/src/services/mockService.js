@@ -108,7 +108,8 @@ export const mockRegister = async (userData) => {
 // Mock Product Functions
 export const mockGetAllProducts = async () => {
   await new Promise((resolve) => setTimeout(resolve, 300));
-  return { data: [...MOCK_PRODUCTS] }; // Wrap trong object data để match với API response
+  // Cùng dạng với API: một trang duy nhất, không có trang sau
+  return { data: { items: [...MOCK_PRODUCTS], nextCursor: null, hasNext: false } };
 };
 
 export const mockGetProductById = async (id) => {
@@ -33,8 +33,9 @@ axiosInstance.interceptors.request.use(
   }
 );
 
-// Lấy tất cả sản phẩm
-export const getAllProducts = async () => {
+// Lấy một trang sản phẩm, cursor = nextCursor của trang trước (bỏ trống để lấy trang đầu)
+// Trả về { data: { items, nextCursor, hasNext } }
+export const getAllProducts = async (cursor) => {
   if (USE_MOCK) {
     return await mockGetAllProducts();
   }
@@ -48,6 +49,9 @@ export const getAllProducts = async () => {
         Authorization: `Bearer ${token}`,
       };
     }
+    if (cursor) {
+      config.params = { cursor };
+    }
 
     const response = await axiosInstance.get("/product", config);
     return response.data;
@@ -76,7 +76,7 @@ describe("Test Product Integration", () => {
         ];
 
         // Mock getAllProducts - PHẢI setup TRƯỚC khi render
-        productService.getAllProducts = jest.fn().mockResolvedValue({ data: mockProducts });
+        productService.getAllProducts = jest.fn().mockResolvedValue({ data: { items: mockProducts, nextCursor: null, hasNext: false } });
         
         // Mock updateProduct
         productService.updateProduct = jest.fn().mockResolvedValue({
@@ -143,7 +143,7 @@ describe("Test Product Integration", () => {
         ];
 
         // Mock getAllProducts - setup trước khi render
-        productService.getAllProducts = jest.fn().mockResolvedValue({ data: mockProducts });
+        productService.getAllProducts = jest.fn().mockResolvedValue({ data: { items: mockProducts, nextCursor: null, hasNext: false } });
         
         // Mock deleteProduct
         productService.deleteProduct = jest.fn().mockResolvedValue({});
@@ -174,4 +174,39 @@ describe("Test Product Integration", () => {
             expect(deleteAlert).toHaveBeenCalledWith("Xóa sản phẩm thành công!");
         })
     })
+
+    test("Load more products by cursor", async () => {
+        const firstPage = [
+            { id: 1, productName: "iPhone 14 Pro", description: "Latest iPhone", price: 30000000, amount: 10, category: "iphone" },
+            { id: 2, productName: "iPhone 15 Pro Max", description: "Newest iPhone", price: 35000000, amount: 5, category: "iphone" }
+        ];
+        const secondPage = [
+            { id: 3, productName: "AirPods Pro 2", description: "Active noise cancellation", price: 6000000, amount: 20, category: "airpod" }
+        ];
+
+        // Trang đầu trả về nextCursor, trang sau là trang cuối
+        productService.getAllProducts = jest.fn()
+            .mockResolvedValueOnce({ data: { items: firstPage, nextCursor: "cursor-2", hasNext: true } })
+            .mockResolvedValueOnce({ data: { items: secondPage, nextCursor: null, hasNext: false } });
+
+        render(
+            <BrowserRouter future={{ v7_startTransition: true, v7_relativeSplatPath: true, }}>
+                <ProductList />
+            </BrowserRouter>
+        )
+
+        await waitFor(() => {
+            expect(screen.getByText("iPhone 15 Pro Max")).toBeInTheDocument();
+        });
+        expect(screen.queryByText("AirPods Pro 2")).not.toBeInTheDocument();
+
+        fireEvent.click(screen.getByTestId("load-more-button"));
+
+        await waitFor(() => {
+            expect(screen.getByText("AirPods Pro 2")).toBeInTheDocument();
+        });
+        expect(productService.getAllProducts).toHaveBeenLastCalledWith("cursor-2");
+        expect(screen.getByText("iPhone 14 Pro")).toBeInTheDocument();
+        expect(screen.queryByTestId("load-more-button")).not.toBeInTheDocument();
+    })
 })
\ No newline at end of file